@@ -30,4 +30,13 @@ public interface JSRegistration {
   String getType(String propertyName);
 
   JSTypeInfo getTypeInfo(String typeName);
+
+  /** Allows the type information to be compiled into a single
+   * lookup table. If null, getTypeInfo is called on each lookup.
+   *
+   * @return names of types with information in this registration
+   */
+  default Set<String> typeNames() {
+    return null;
+  }
 }
@@ -0,0 +1,86 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl;
+
+import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.model.JSCalendarObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/** Iterates over the entries of a group as they are read. Only the
+ * current entry is referenced by the iterator so each may be
+ * discarded as soon as the caller is done with it.
+ *
+ * <p>The spliterator is created from this iterator and so splits
+ * off batches of parsed entries, allowing a parallel stream to
+ * process entries on other threads while parsing continues.</p>
+ */
+public class JSEntryIterator
+        implements Iterator<JSCalendarObject>, Closeable {
+  private final JSStreamParser parser;
+
+  private JSCalendarObject next;
+
+  /**
+   *
+   * @param parser positioned before or at the start of the group
+   */
+  public JSEntryIterator(final JSStreamParser parser) {
+    this.parser = parser;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      next = parser.nextEntry();
+    }
+
+    return next != null;
+  }
+
+  @Override
+  public JSCalendarObject next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    final var res = next;
+    next = null;
+
+    return res;
+  }
+
+  /**
+   *
+   * @return an ordered spliterator over the remaining entries
+   */
+  public Spliterator<JSCalendarObject> spliterator() {
+    return Spliterators.spliteratorUnknownSize(
+            this,
+            Spliterator.ORDERED | Spliterator.NONNULL);
+  }
+
+  /** Any entries not yet read are skipped.
+   *
+   * @return the group without its entries
+   */
+  public JSCalendarObject getGroup() {
+    next = null;
+    return parser.getObject();
+  }
+
+  @Override
+  public void close() {
+    try {
+      parser.close();
+    } catch (final IOException ie) {
+      throw new JsforjException(ie);
+    }
+  }
+}
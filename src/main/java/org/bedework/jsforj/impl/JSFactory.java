@@ -17,7 +17,6 @@ import org.bedework.jsforj.model.values.JSValue;
 import org.bedework.jsforj.model.values.dataTypes.JSString;
 import org.bedework.jsforj.model.values.dataTypes.JSUnsignedInteger;
 
-import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.BooleanNode;
@@ -31,6 +30,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * User: mike Date: 10/24/19 Time: 10:51
@@ -42,10 +43,18 @@ public class JSFactory {
           JsonNodeFactory.withExactBigDecimals(false);
 
   private final static Map<Class<?>, JSValueFactory> valueFactories =
-          new HashMap<>();
+          new ConcurrentHashMap<>();
 
   private final static List<JSRegistration> registrations =
-          new ArrayList<>();
+          new CopyOnWriteArrayList<>();
+
+  /* Registrations compiled into single lookup tables. Rebuilt on the
+     next lookup after a registration. The tables are never modified
+     once published so lookups need no locking.
+   */
+  private static volatile Registry registry;
+
+  private static boolean frozen;
 
   static {
     register(new JSPropertyAttributes());
@@ -55,8 +64,21 @@ public class JSFactory {
     return factory;
   }
 
-  public static void register(final JSRegistration val) {
+  public static synchronized void register(final JSRegistration val) {
+    if (frozen) {
+      throw new JsforjException("Registrations are frozen");
+    }
+
     registrations.add(val);
+    registry = null;
+  }
+
+  /** Compile the registrations and disallow any further
+   * registration.
+   */
+  public static synchronized void freeze() {
+    frozen = true;
+    getRegistry();
   }
 
   /**
@@ -65,14 +87,7 @@ public class JSFactory {
    * @return type name - null if unknown property
    */
   public static String getPropertyType(final String name) {
-    for (final var registration: registrations) {
-      final var ptype = registration.getType(name);
-      if (ptype != null) {
-        return ptype;
-      }
-    }
-
-    return null;
+    return getRegistry().getPropertyType(name);
   }
 
   /**
@@ -81,14 +96,136 @@ public class JSFactory {
    * @return type information - null if unknown type
    */
   public static JSTypeInfo getTypeInfo(final String name) {
-    for (final var registration: registrations) {
-      final var typeInfo = registration.getTypeInfo(name);
-      if (typeInfo != null) {
-        return typeInfo;
+    return getRegistry().getTypeInfo(name);
+  }
+
+  private static JSValueFactory makeValueFactory(
+          final Class<?> factoryClass) {
+    try {
+      return (JSValueFactory)factoryClass.getConstructor()
+                                         .newInstance();
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  private static Registry getRegistry() {
+    var reg = registry;
+    if (reg != null) {
+      return reg;
+    }
+
+    synchronized (JSFactory.class) {
+      if (registry == null) {
+        registry = new Registry(registrations);
+      }
+
+      return registry;
+    }
+  }
+
+  /* Property and type names from all registrations in one table
+     each. The first registration for a name wins, as in a scan of
+     the registrations. Registrations which cannot list their names
+     are probed in order, but only those registered before the one
+     which listed the name, or all of them if the table misses.
+   */
+  private static class Registry {
+    // A listed value and the position of its registration
+    private static class Listed<T> {
+      final int pos;
+      final T value;
+
+      Listed(final int pos,
+             final T value) {
+        this.pos = pos;
+        this.value = value;
+      }
+    }
+
+    private final Map<String, Listed<String>> ptypes = new HashMap<>();
+    private final Map<String, Listed<JSTypeInfo>> types =
+            new HashMap<>();
+
+    private final List<Listed<JSRegistration>> unlistedProperties =
+            new ArrayList<>();
+    private final List<Listed<JSRegistration>> unlistedTypes =
+            new ArrayList<>();
+
+    Registry(final List<JSRegistration> registrations) {
+      for (int pos = 0; pos < registrations.size(); pos++) {
+        final var registration = registrations.get(pos);
+        final var pnames = registration.propertyNames();
+        if (pnames == null) {
+          unlistedProperties.add(new Listed<>(pos, registration));
+        } else {
+          for (final var pname: pnames) {
+            final var ptype = registration.getType(pname);
+            if (ptype != null) {
+              ptypes.putIfAbsent(pname, new Listed<>(pos, ptype));
+            }
+          }
+        }
+
+        final var tnames = registration.typeNames();
+        if (tnames == null) {
+          unlistedTypes.add(new Listed<>(pos, registration));
+        } else {
+          for (final var tname: tnames) {
+            final var typeInfo = registration.getTypeInfo(tname);
+            if (typeInfo != null) {
+              types.putIfAbsent(tname, new Listed<>(pos, typeInfo));
+            }
+          }
+        }
       }
     }
 
-    return null;
+    String getPropertyType(final String name) {
+      final var listed = ptypes.get(name);
+      final int before = (listed == null) ? Integer.MAX_VALUE
+                                          : listed.pos;
+
+      for (final var unlisted: unlistedProperties) {
+        if (unlisted.pos > before) {
+          break;
+        }
+
+        final var res = unlisted.value.getType(name);
+        if (res != null) {
+          return res;
+        }
+      }
+
+      if (listed == null) {
+        return null;
+      }
+
+      return listed.value;
+    }
+
+    JSTypeInfo getTypeInfo(final String name) {
+      final var listed = types.get(name);
+      final int before = (listed == null) ? Integer.MAX_VALUE
+                                          : listed.pos;
+
+      for (final var unlisted: unlistedTypes) {
+        if (unlisted.pos > before) {
+          break;
+        }
+
+        final var res = unlisted.value.getTypeInfo(name);
+        if (res != null) {
+          return res;
+        }
+      }
+
+      if (listed == null) {
+        return null;
+      }
+
+      return listed.value;
+    }
   }
 
   /**
@@ -121,9 +258,8 @@ public class JSFactory {
                                    final JsonNode nd,
                                    final String providedType) {
     final String theName;
-    if (propertyName.contains("/")) {
-      theName = JsonPointer.compile("/" + propertyName)
-                           .last().getMatchingProperty();
+    if (propertyName.indexOf('/') >= 0) {
+      theName = JSPatchPath.last(propertyName);
     } else {
       theName = propertyName;
     }
@@ -324,19 +460,9 @@ public class JSFactory {
       return new JSUnknownTypeImpl(type, theNode);
     }
 
-    JSValueFactory vfactory = valueFactories.get(factoryClass);
-
-    if (vfactory == null) {
-      try {
-        vfactory =
-                (JSValueFactory)factoryClass
-                        .getConstructor().newInstance();
-      } catch (final Throwable t) {
-        throw new JsforjException(t);
-      }
-
-      valueFactories.put(factoryClass, vfactory);
-    }
+    final JSValueFactory vfactory =
+            valueFactories.computeIfAbsent(factoryClass,
+                                           JSFactory::makeValueFactory);
 
     return vfactory.newValue(type, theNode);
   }
@@ -0,0 +1,105 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl;
+
+import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.impl.values.JSValueImpl;
+import org.bedework.jsforj.model.JSCalendarObject;
+import org.bedework.jsforj.model.JSGroup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** Writes a group one entry at a time. The properties of the group
+ * are written first, then each entry is written as it is supplied,
+ * so a large group can be streamed to a client without building the
+ * whole group in memory.
+ *
+ * <p>Any entries already in the group are written before those
+ * supplied to {@link #writeEntry(JSCalendarObject)}.</p>
+ */
+public class JSGroupWriter implements Closeable {
+  private final JsonGenerator gen;
+
+  private boolean closed;
+
+  /**
+   *
+   * @param gen to write to - closed when this writer is closed
+   * @param group properties other than the entries are written
+   */
+  public JSGroupWriter(final JsonGenerator gen,
+                       final JSGroup group) {
+    this.gen = gen;
+
+    try {
+      group.preWrite();
+
+      gen.writeStartObject();
+
+      final var it = ((JSValueImpl)group).getNode().fields();
+      while (it.hasNext()) {
+        final var fld = it.next();
+        if (JSPropertyNames.entries.equals(fld.getKey())) {
+          continue;
+        }
+
+        gen.writeFieldName(fld.getKey());
+        JSValueImpl.writeNode(gen, fld.getValue());
+      }
+
+      gen.writeFieldName(JSPropertyNames.entries);
+      gen.writeStartArray();
+
+      for (final var entry: group.getEntries()) {
+        writeEntry(entry);
+      }
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** Write the next entry. The entry may be discarded once written.
+   *
+   * @param entry to write
+   */
+  public void writeEntry(final JSCalendarObject entry) {
+    entry.writeValue(gen);
+  }
+
+  /** Flush any buffered output to the client.
+   *
+   */
+  public void flush() {
+    try {
+      gen.flush();
+    } catch (final IOException ie) {
+      throw new JsforjException(ie);
+    }
+  }
+
+  /** Complete the group and close the generator.
+   *
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+
+    try {
+      gen.writeEndArray();
+      gen.writeEndObject();
+      gen.close();
+    } catch (final IOException ie) {
+      throw new JsforjException(ie);
+    }
+  }
+}
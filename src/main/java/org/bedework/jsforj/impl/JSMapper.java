@@ -5,24 +5,75 @@ package org.bedework.jsforj.impl;
 
 import org.bedework.jsforj.JsforjException;
 import org.bedework.jsforj.model.JSCalendarObject;
+import org.bedework.jsforj.model.JSGroup;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-/**
+/** By default reads and writes json. A mapper created with a
+ * different JsonFactory reads and writes that format with the same
+ * object model - see {@link #smile()} and {@link #cbor()}. Binary
+ * formats must be read from bytes and written with
+ * {@link org.bedework.jsforj.model.values.JSValue#writeValue(java.io.OutputStream, ObjectMapper)}.
+ *
  * User: mike Date: 10/23/19 Time: 23:44
  */
 public class JSMapper extends ObjectMapper {
   final static JSFactory factory = JSFactory.getFactory();
 
   public JSMapper() {
+    this(null);
+  }
+
+  /**
+   *
+   * @param jf factory for the wire format - null for json
+   */
+  public JSMapper(final JsonFactory jf) {
+    super(jf);
     setSerializationInclusion(JsonInclude.Include.NON_NULL);
     // configure(JsonFactory.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
   }
 
+  /**
+   *
+   * @return a mapper for the Jackson Smile binary format
+   */
+  public static JSMapper smile() {
+    return new JSMapper(new SmileFactory());
+  }
+
+  /**
+   *
+   * @return a mapper for the CBOR (RFC 7049) binary format
+   */
+  public static JSMapper cbor() {
+    return new JSMapper(new CBORFactory());
+  }
+
   public JSCalendarObject parse(final Reader rdr) {
     final JsonNode nd;
 
@@ -34,4 +85,346 @@ public class JSMapper extends ObjectMapper {
 
     return factory.makeCalObj(nd);
   }
+
+  /** Parse from bytes. The encoding is detected and for UTF-8
+   * Jackson tokenizes the bytes directly without decoding to chars.
+   *
+   * @param is to read from
+   * @return the parsed object
+   */
+  public JSCalendarObject parse(final InputStream is) {
+    try {
+      return parse(getFactory().createParser(is));
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** Parse from bytes.
+   *
+   * @param bytes holding the json
+   * @return the parsed object
+   */
+  public JSCalendarObject parse(final byte[] bytes) {
+    return parse(bytes, 0, bytes.length);
+  }
+
+  /** Parse from part of a byte array.
+   *
+   * @param bytes holding the json
+   * @param offset of first byte
+   * @param len number of bytes
+   * @return the parsed object
+   */
+  public JSCalendarObject parse(final byte[] bytes,
+                                final int offset,
+                                final int len) {
+    try {
+      return parse(getFactory().createParser(bytes, offset, len));
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** Parse the remaining bytes in the buffer. A heap buffer is
+   * parsed in place. Any other buffer, e.g. a MappedByteBuffer, is
+   * read directly into the parser's input buffer. The position of
+   * the buffer is not changed.
+   *
+   * @param buff holding the json
+   * @return the parsed object
+   */
+  public JSCalendarObject parse(final ByteBuffer buff) {
+    if (buff.hasArray()) {
+      return parse(buff.array(),
+                   buff.arrayOffset() + buff.position(),
+                   buff.remaining());
+    }
+
+    return parse(new ByteBufferBackedInputStream(buff.duplicate()));
+  }
+
+  /** Parse a file by mapping it into memory. The mapping is
+   * released when the buffer is garbage collected.
+   *
+   * @param path of the file
+   * @return the parsed object
+   */
+  public JSCalendarObject parse(final Path path) {
+    try (final var channel = FileChannel.open(path,
+                                              StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new JsforjException("File too large to map: " + path);
+      }
+
+      return parse(channel.map(FileChannel.MapMode.READ_ONLY,
+                               0, size));
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** Parse each file in parallel using a fork/join pool. A file
+   * which cannot be parsed does not stop the batch - the failure is
+   * reported in its result.
+   *
+   * @param paths files to parse
+   * @param parallelism number of threads to use
+   * @return results in the same order as the paths
+   */
+  public List<JSParseResult> parseAll(final Collection<Path> paths,
+                                      final int parallelism) {
+    return JSParallel.run(parallelism,
+                          () -> paths.parallelStream()
+                                     .map(this::parseResult)
+                                     .collect(Collectors.toList()));
+  }
+
+  /** Parse all the files in a directory which match the glob, e.g.
+   * "*.json", in parallel.
+   *
+   * @param dir directory to read
+   * @param glob to select files
+   * @param parallelism number of threads to use
+   * @return results in file name order
+   */
+  public List<JSParseResult> parseAll(final Path dir,
+                                      final String glob,
+                                      final int parallelism) {
+    final List<Path> paths = new ArrayList<>();
+
+    try (final var ds = Files.newDirectoryStream(dir, glob)) {
+      for (final var path: ds) {
+        if (Files.isRegularFile(path)) {
+          paths.add(path);
+        }
+      }
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+
+    Collections.sort(paths);
+
+    return parseAll(paths, parallelism);
+  }
+
+  /** Parse retaining only the named properties. All other
+   * properties are skipped without being built.
+   *
+   * @param rdr to read from
+   * @param paths property names or json pointers to retain
+   * @return the parsed object with only the projected properties
+   */
+  public JSCalendarObject parse(final Reader rdr,
+                                final Collection<String> paths) {
+    return parse(rdr, new JSProjection(paths));
+  }
+
+  /** Parse retaining only the projected properties. All other
+   * properties are skipped without being built.
+   *
+   * @param rdr to read from
+   * @param projection properties to retain
+   * @return the parsed object with only the projected properties
+   */
+  public JSCalendarObject parse(final Reader rdr,
+                                final JSProjection projection) {
+    try {
+      return parse(getFactory().createParser(rdr), projection);
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** Parse retaining only the projected properties.
+   *
+   * @param is to read from
+   * @param projection properties to retain
+   * @return the parsed object with only the projected properties
+   */
+  public JSCalendarObject parse(final InputStream is,
+                                final JSProjection projection) {
+    try {
+      return parse(getFactory().createParser(is), projection);
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** Parse by walking the tokens rather than reading the whole
+   * document as a tree. The entries of a group are built one at a
+   * time and passed to the handler - they are not retained in the
+   * returned group.
+   *
+   * @param rdr to read from
+   * @param entryHandler called for each group entry
+   * @return the parsed object - for a group, without its entries
+   */
+  public JSCalendarObject parse(
+          final Reader rdr,
+          final Consumer<JSCalendarObject> entryHandler) {
+    try (final var sp = new JSStreamParser(
+            this, getFactory().createParser(rdr))) {
+      return sp.parse(entryHandler);
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** Iterate over the entries of a group as they are read. The
+   * caller should close the iterator when done.
+   *
+   * @param rdr to read from
+   * @return iterator over the entries
+   */
+  public JSEntryIterator entryIterator(final Reader rdr) {
+    try {
+      return entryIterator(getFactory().createParser(rdr));
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** Iterate over the entries of a group as they are read. The
+   * caller should close the iterator when done.
+   *
+   * @param is to read from
+   * @return iterator over the entries
+   */
+  public JSEntryIterator entryIterator(final InputStream is) {
+    try {
+      return entryIterator(getFactory().createParser(is));
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** A stream of the entries of a group as they are read. Closing
+   * the stream closes the parser.
+   *
+   * @param rdr to read from
+   * @param parallel true for a parallel stream
+   * @return stream of entries
+   */
+  public Stream<JSCalendarObject> entries(final Reader rdr,
+                                          final boolean parallel) {
+    return entries(entryIterator(rdr), parallel);
+  }
+
+  /** A stream of the entries of a group as they are read. Closing
+   * the stream closes the parser.
+   *
+   * @param is to read from
+   * @param parallel true for a parallel stream
+   * @return stream of entries
+   */
+  public Stream<JSCalendarObject> entries(final InputStream is,
+                                          final boolean parallel) {
+    return entries(entryIterator(is), parallel);
+  }
+
+  /** Read a sequence of calendar objects from newline delimited
+   * json or an RFC 7464 json text sequence. Records which cannot be
+   * read are skipped.
+   *
+   * @param is to read from
+   * @return reader for the sequence
+   */
+  public JSSequenceReader readSequence(final InputStream is) {
+    return readSequence(is, null);
+  }
+
+  /** Read a sequence of calendar objects from newline delimited
+   * json or an RFC 7464 json text sequence.
+   *
+   * @param is to read from
+   * @param failureHandler called for each record which cannot be
+   *                       read - may be null
+   * @return reader for the sequence
+   */
+  public JSSequenceReader readSequence(
+          final InputStream is,
+          final Consumer<JSSequenceReader.Failure> failureHandler) {
+    return new JSSequenceReader(this, is, failureHandler);
+  }
+
+  /** Write a group one entry at a time. The caller must close the
+   * returned writer to complete the group.
+   *
+   * @param os to write to
+   * @param group properties of the group and any entries it has
+   * @return writer for further entries
+   */
+  public JSGroupWriter groupWriter(final OutputStream os,
+                                   final JSGroup group) {
+    try {
+      return new JSGroupWriter(getFactory().createGenerator(os), group);
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  private JSParseResult parseResult(final Path path) {
+    try {
+      return new JSParseResult(path, parse(path), null);
+    } catch (final Throwable t) {
+      return new JSParseResult(path, null, t);
+    }
+  }
+
+  private JSCalendarObject parse(final JsonParser parser) {
+    final JsonNode nd;
+
+    try (parser) {
+      nd = readTree(parser);
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+
+    if (nd == null) {
+      throw new JsforjException("No content");
+    }
+
+    return factory.makeCalObj(nd);
+  }
+
+  private JSCalendarObject parse(final JsonParser parser,
+                                 final JSProjection projection) {
+    final JsonNode nd;
+
+    try (parser) {
+      nd = projection.read(this, parser);
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+
+    return factory.makeCalObj(nd);
+  }
+
+  private JSEntryIterator entryIterator(final JsonParser parser) {
+    return new JSEntryIterator(new JSStreamParser(this, parser));
+  }
+
+  private Stream<JSCalendarObject> entries(final JSEntryIterator it,
+                                           final boolean parallel) {
+    return StreamSupport.stream(it.spliterator(), parallel)
+                        .onClose(it::close);
+  }
 }
@@ -0,0 +1,44 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl;
+
+import org.bedework.jsforj.JsforjException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/** Runs a task in a fork/join pool of its own so that any parallel
+ * streams within it use that pool rather than the common pool.
+ */
+public class JSParallel {
+  private JSParallel() {
+  }
+
+  /**
+   *
+   * @param parallelism number of threads to use
+   * @param task to run - usually evaluates a parallel stream
+   * @param <T> type of result
+   * @return result of the task
+   */
+  public static <T> T run(final int parallelism,
+                          final Callable<T> task) {
+    final var pool = new ForkJoinPool(parallelism);
+
+    try {
+      return pool.submit(task).get();
+    } catch (final ExecutionException ee) {
+      final var cause = ee.getCause();
+      if (cause instanceof JsforjException) {
+        throw (JsforjException)cause;
+      }
+      throw new JsforjException(cause);
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl;
+
+import org.bedework.jsforj.model.JSCalendarObject;
+
+import java.nio.file.Path;
+
+/** Result of parsing one file in a batch. Exactly one of the object
+ * or the exception is non-null.
+ */
+public class JSParseResult {
+  private final Path path;
+  private final JSCalendarObject object;
+  private final Throwable exception;
+
+  JSParseResult(final Path path,
+                final JSCalendarObject object,
+                final Throwable exception) {
+    this.path = path;
+    this.object = object;
+    this.exception = exception;
+  }
+
+  /**
+   *
+   * @return the file parsed
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   *
+   * @return the parsed object or null on failure
+   */
+  public JSCalendarObject getObject() {
+    return object;
+  }
+
+  /**
+   *
+   * @return the reason the file could not be parsed or null
+   */
+  public Throwable getException() {
+    return exception;
+  }
+
+  /**
+   *
+   * @return true if the file was parsed
+   */
+  public boolean isOk() {
+    return exception == null;
+  }
+
+  public String toString() {
+    return "JSParseResult{path=" + path +
+            ", ok=" + isOk() +
+            (isOk() ? "" : ", exception=" + exception.getMessage()) +
+            "}";
+  }
+}
@@ -0,0 +1,82 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Split and unescape the keys of patch objects. The same keys, e.g.
+ * "participants/x/participationStatus", are seen in many overrides so
+ * the segments are cached by key. The arrays returned are shared and
+ * must not be modified.
+ */
+public class JSPatchPath {
+  // Cache is dropped rather than allowed to grow beyond this
+  private final static int maxCached = 4096;
+
+  private final static Map<String, String[]> paths =
+          new ConcurrentHashMap<>();
+
+  private JSPatchPath() {
+  }
+
+  /**
+   *
+   * @param key patch key - a json pointer without the leading "/"
+   * @return unescaped segments of the path
+   */
+  public static String[] segments(final String key) {
+    final var cached = paths.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    if (paths.size() >= maxCached) {
+      paths.clear();
+    }
+
+    final var res = split(key);
+    paths.put(key, res);
+
+    return res;
+  }
+
+  /**
+   *
+   * @param key patch key - a json pointer without the leading "/"
+   * @return unescaped last segment of the path
+   */
+  public static String last(final String key) {
+    final var segs = segments(key);
+    return segs[segs.length - 1];
+  }
+
+  private static String[] split(final String key) {
+    final var res = new ArrayList<String>();
+    int start = 0;
+
+    while (true) {
+      final int end = key.indexOf('/', start);
+      if (end < 0) {
+        res.add(unescape(key.substring(start)));
+        break;
+      }
+
+      res.add(unescape(key.substring(start, end)));
+      start = end + 1;
+    }
+
+    return res.toArray(new String[0]);
+  }
+
+  /* RFC 6901 - "~1" is "/" and "~0" is "~" */
+  private static String unescape(final String seg) {
+    if (seg.indexOf('~') < 0) {
+      return seg;
+    }
+
+    return seg.replace("~1", "/").replace("~0", "~");
+  }
+}
@@ -0,0 +1,137 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl;
+
+import org.bedework.jsforj.JsforjException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/** A set of properties to be retained when parsing. Each entry is
+ * either a property name, e.g. "uid", or a json pointer, e.g.
+ * "/locations/loc1/name". All other properties are skipped at the
+ * token level and never built as nodes.
+ *
+ * <p>The "@type" property is always retained for the object and any
+ * partially retained sub-object so that values are typed as
+ * normal. Pointers only descend through objects - an array on the
+ * path is retained whole.</p>
+ *
+ * <p>A projection is immutable once built and may be reused.</p>
+ */
+public class JSProjection {
+  // Child projections - null value means retain whole subtree
+  private final Map<String, JSProjection> children = new HashMap<>();
+
+  private JSProjection() {
+  }
+
+  /**
+   *
+   * @param paths property names or json pointers
+   */
+  public JSProjection(final Collection<String> paths) {
+    for (final var path: paths) {
+      if (path.startsWith("/")) {
+        add(JsonPointer.compile(path));
+      } else {
+        children.put(path, null);
+      }
+    }
+  }
+
+  /** Read the current object from the parser retaining only the
+   * projected properties.
+   *
+   * @param mapper used to build the retained values
+   * @param parser positioned before or at the start of the object
+   * @return the projected object node
+   */
+  public ObjectNode read(final ObjectMapper mapper,
+                         final JsonParser parser) {
+    try {
+      var tkn = parser.currentToken();
+      if (tkn == null) {
+        tkn = parser.nextToken();
+      }
+
+      if (tkn != JsonToken.START_OBJECT) {
+        throw new JsforjException("Not an object node");
+      }
+
+      return readObject(mapper, parser);
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  private void add(final JsonPointer ptr) {
+    if (ptr.matches()) {
+      return;
+    }
+
+    final var name = ptr.getMatchingProperty();
+    final var tail = ptr.tail();
+
+    if (tail.matches()) {
+      children.put(name, null);
+      return;
+    }
+
+    if (children.containsKey(name)) {
+      final var child = children.get(name);
+      if (child != null) {
+        child.add(tail);
+      }
+
+      // else already retaining the whole subtree
+      return;
+    }
+
+    final var child = new JSProjection();
+    child.add(tail);
+    children.put(name, child);
+  }
+
+  private ObjectNode readObject(final ObjectMapper mapper,
+                                final JsonParser parser)
+          throws IOException {
+    final var res = mapper.getNodeFactory().objectNode();
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final var name = parser.getCurrentName();
+      final var tkn = parser.nextToken();
+
+      if (JSPropertyNames.type.equals(name)) {
+        res.set(name, mapper.readTree(parser));
+        continue;
+      }
+
+      if (!children.containsKey(name)) {
+        parser.skipChildren();
+        continue;
+      }
+
+      final var child = children.get(name);
+      if ((child == null) || (tkn != JsonToken.START_OBJECT)) {
+        res.set(name, mapper.readTree(parser));
+        continue;
+      }
+
+      res.set(name, child.readObject(mapper, parser));
+    }
+
+    return res;
+  }
+}
@@ -953,6 +953,11 @@ class JSPropertyAttributes implements JSRegistration {
     return types.get(name);
   }
 
+  @Override
+  public Set<String> typeNames() {
+    return types.keySet();
+  }
+
   static List<String> getValidFor(final String name) {
     return validFor.get(name);
   }
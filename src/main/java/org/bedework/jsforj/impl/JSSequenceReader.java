@@ -0,0 +1,473 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl;
+
+import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.model.JSCalendarObject;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/** Reads a sequence of calendar objects from a stream of
+ * newline delimited json (NDJSON) or an RFC 7464 json text sequence.
+ *
+ * <p>A single parser is used for the whole stream. Records which
+ * cannot be turned into a calendar object are reported to the
+ * failure handler and skipped. After a syntax error the input is
+ * rewound to the start of the failed record and a new parser
+ * started after the next delimiter - a newline, or for a json text
+ * sequence a record separator - so one bad record does not end the
+ * sequence or swallow the following one.</p>
+ *
+ * <p>To allow the rewind the bytes of the current record are kept
+ * until the next record starts.</p>
+ */
+public class JSSequenceReader
+        implements Iterator<JSCalendarObject>, Closeable {
+  private final static JSFactory factory = JSFactory.getFactory();
+
+  // RFC 7464 record separator
+  private final static int recordSeparator = 0x1E;
+
+  private final ObjectMapper mapper;
+  private final SeqInput in;
+  private final Consumer<Failure> failureHandler;
+
+  private JsonParser parser;
+
+  // Absolute offset of the first byte seen by the current parser
+  private long base;
+
+  // Record delimiter - record separator or newline
+  private final int delimiter;
+
+  private JSCalendarObject next;
+
+  private final Stats stats = new Stats();
+
+  /** A record that could not be read
+   */
+  public static class Failure {
+    private final long recordNumber;
+    private final Throwable exception;
+
+    Failure(final long recordNumber,
+            final Throwable exception) {
+      this.recordNumber = recordNumber;
+      this.exception = exception;
+    }
+
+    /**
+     *
+     * @return 1 based position of the record in the sequence
+     */
+    public long getRecordNumber() {
+      return recordNumber;
+    }
+
+    /**
+     *
+     * @return the reason the record was rejected
+     */
+    public Throwable getException() {
+      return exception;
+    }
+
+    public String toString() {
+      return "Failure{record=" + recordNumber +
+              ", exception=" + exception.getMessage() + "}";
+    }
+  }
+
+  /** Throughput for the sequence so far
+   */
+  public static class Stats {
+    private final long startNanos = System.nanoTime();
+    private long records;
+    private long failures;
+    private long bytes;
+
+    /**
+     *
+     * @return number of records read including failures
+     */
+    public long getRecords() {
+      return records;
+    }
+
+    /**
+     *
+     * @return number of records rejected
+     */
+    public long getFailures() {
+      return failures;
+    }
+
+    /**
+     *
+     * @return bytes consumed from the input so far - that is, up to
+     *         the end of the last token parsed. Bytes buffered ahead
+     *         of that are not counted.
+     */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /**
+     *
+     * @return nanoseconds since the reader was created
+     */
+    public long getElapsedNanos() {
+      return System.nanoTime() - startNanos;
+    }
+
+    /**
+     *
+     * @return records per second since the reader was created
+     */
+    public double getRecordsPerSecond() {
+      return perSecond(records);
+    }
+
+    /**
+     *
+     * @return bytes per second since the reader was created
+     */
+    public double getBytesPerSecond() {
+      return perSecond(bytes);
+    }
+
+    public String toString() {
+      return "Stats{records=" + records +
+              ", failures=" + failures +
+              ", bytes=" + bytes +
+              ", elapsedMs=" + (getElapsedNanos() / 1000000) +
+              ", records/s=" + (long)getRecordsPerSecond() + "}";
+    }
+
+    private double perSecond(final long val) {
+      final var elapsed = getElapsedNanos();
+      if (elapsed == 0) {
+        return 0;
+      }
+
+      return val * 1e9 / elapsed;
+    }
+  }
+
+  /**
+   *
+   * @param mapper used to build each value tree
+   * @param is NDJSON or json text sequence
+   * @param failureHandler called for each rejected record -
+   *                       may be null
+   */
+  public JSSequenceReader(final ObjectMapper mapper,
+                          final InputStream is,
+                          final Consumer<Failure> failureHandler) {
+    this.mapper = mapper;
+    in = new SeqInput(is);
+    this.failureHandler = failureHandler;
+
+    // RFC 7464 sequences start with a record separator
+    if (in.peek(0) == recordSeparator) {
+      delimiter = recordSeparator;
+    } else {
+      delimiter = '\n';
+    }
+
+    parser = newParser();
+  }
+
+  /**
+   *
+   * @return throughput so far
+   */
+  public Stats getStats() {
+    // Not in.count() - that includes what is buffered ahead
+    final long offset = parser.getCurrentLocation().getByteOffset();
+    if (offset < 0) {
+      stats.bytes = in.position();
+    } else {
+      stats.bytes = base + offset;
+    }
+
+    return stats;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      next = read();
+    }
+
+    return next != null;
+  }
+
+  @Override
+  public JSCalendarObject next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    final var res = next;
+    next = null;
+
+    return res;
+  }
+
+  @Override
+  public void close() {
+    try {
+      parser.close();
+      in.close();
+    } catch (final IOException ie) {
+      throw new JsforjException(ie);
+    }
+  }
+
+  private JSCalendarObject read() {
+    while (true) {
+      final JsonToken tkn;
+
+      try {
+        tkn = parser.nextToken();
+      } catch (final JsonProcessingException jpe) {
+        // Garbage between records - skip from the error
+        stats.records++;
+        failed(jpe);
+        resync(base + jpe.getLocation().getByteOffset());
+        continue;
+      } catch (final IOException ie) {
+        throw new JsforjException(ie);
+      }
+
+      if (tkn == null) {
+        return null;
+      }
+
+      stats.records++;
+
+      final long recordStart =
+              base + parser.getTokenLocation().getByteOffset();
+      in.release(recordStart);
+
+      try {
+        if (tkn != JsonToken.START_OBJECT) {
+          parser.skipChildren();
+          throw new JsforjException("Not an object node");
+        }
+
+        return factory.makeCalObj(mapper.readTree(parser));
+      } catch (final JsonProcessingException jpe) {
+        failed(jpe);
+        resync(recordStart + 1);
+      } catch (final JsforjException je) {
+        failed(je);
+      } catch (final IOException ie) {
+        throw new JsforjException(ie);
+      }
+    }
+  }
+
+  private void failed(final Throwable t) {
+    stats.failures++;
+    if (failureHandler != null) {
+      failureHandler.accept(new Failure(stats.records, t));
+    }
+  }
+
+  /* Start a new parser after the first delimiter at or after the
+     given offset.
+   */
+  private void resync(final long from) {
+    try {
+      parser.close();
+    } catch (final IOException ie) {
+      throw new JsforjException(ie);
+    }
+
+    long pos = from;
+    while (true) {
+      final int b = in.peek(pos);
+      pos++;
+
+      if ((b < 0) || (b == delimiter)) {
+        break;
+      }
+    }
+
+    in.seek(Math.min(pos, in.count()));
+    parser = newParser();
+  }
+
+  private JsonParser newParser() {
+    try {
+      base = in.position();
+
+      final var p = mapper.getFactory().createParser(in);
+      p.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      return p;
+    } catch (final IOException ie) {
+      throw new JsforjException(ie);
+    }
+  }
+
+  /* Keeps the raw bytes from the start of the current record so
+     that we can rewind after an error. Record separators are
+     delivered to the parser as spaces. A record separator cannot
+     appear unescaped in json text so this is always safe.
+   */
+  private static class SeqInput extends InputStream {
+    private final InputStream source;
+
+    private byte[] buff = new byte[8192];
+
+    // Absolute offset of buff[0]
+    private long buffStart;
+
+    private int buffLen;
+
+    // Absolute offset of the next byte delivered
+    private long pos;
+
+    // Bytes before this may be discarded
+    private long keepFrom;
+
+    private boolean eof;
+
+    SeqInput(final InputStream source) {
+      this.source = source;
+    }
+
+    /**
+     * @return total bytes read from the source
+     */
+    long count() {
+      return buffStart + buffLen;
+    }
+
+    long position() {
+      return pos;
+    }
+
+    void seek(final long val) {
+      pos = val;
+    }
+
+    /* Bytes before the offset will not be needed again. They are
+       dropped when the buffer next fills.
+     */
+    void release(final long offset) {
+      keepFrom = Math.min(offset, pos);
+    }
+
+    /* Raw byte at absolute offset - reading ahead if needed.
+     */
+    int peek(final long offset) {
+      try {
+        while (offset >= count()) {
+          if (fill() < 0) {
+            return -1;
+          }
+        }
+      } catch (final IOException ie) {
+        throw new JsforjException(ie);
+      }
+
+      return buff[(int)(offset - buffStart)] & 0xff;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if ((pos >= count()) && (fill() < 0)) {
+        return -1;
+      }
+
+      final int b = buff[(int)(pos - buffStart)] & 0xff;
+      pos++;
+
+      if (b == recordSeparator) {
+        return ' ';
+      }
+
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] b,
+                    final int off,
+                    final int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+
+      if ((pos >= count()) && (fill() < 0)) {
+        return -1;
+      }
+
+      final int n = (int)Math.min(len, count() - pos);
+      System.arraycopy(buff, (int)(pos - buffStart), b, off, n);
+      pos += n;
+
+      for (int i = off; i < off + n; i++) {
+        if (b[i] == recordSeparator) {
+          b[i] = ' ';
+        }
+      }
+
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      source.close();
+    }
+
+    private int fill() throws IOException {
+      if (eof) {
+        return -1;
+      }
+
+      if (buffLen == buff.length) {
+        compact();
+      }
+
+      if (buffLen == buff.length) {
+        final byte[] newBuff = new byte[buff.length * 2];
+        System.arraycopy(buff, 0, newBuff, 0, buffLen);
+        buff = newBuff;
+      }
+
+      final int n = source.read(buff, buffLen, buff.length - buffLen);
+      if (n < 0) {
+        eof = true;
+        return -1;
+      }
+
+      buffLen += n;
+      return n;
+    }
+
+    private void compact() {
+      final int drop = (int)(keepFrom - buffStart);
+      if (drop <= 0) {
+        return;
+      }
+
+      System.arraycopy(buff, drop, buff, 0, buffLen - drop);
+      buffLen -= drop;
+      buffStart += drop;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl;
+
+import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.model.JSCalendarObject;
+import org.bedework.jsforj.model.JSTypes;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/** Parses a calendar object by walking the parser tokens rather
+ * than reading the whole document as a tree first.
+ *
+ * <p>Properties whose registered type is a list of calendar
+ * objects (the entries of a group) are not retained. Each element
+ * is built as a separate tree and handed to the caller as soon as
+ * it has been read, so peak memory is bounded by the largest single
+ * entry rather than the size of the document.</p>
+ *
+ * <p>All other properties are read into the top level node as
+ * normal.</p>
+ */
+public class JSStreamParser implements Closeable {
+  private final static JSFactory factory = JSFactory.getFactory();
+
+  private final ObjectMapper mapper;
+  private final JsonParser parser;
+
+  private ObjectNode top;
+
+  // True while positioned inside an entries array
+  private boolean inEntries;
+
+  // True once the end of the object has been reached
+  private boolean done;
+
+  /**
+   *
+   * @param mapper used to build each value tree
+   * @param parser positioned before or at the start of the object
+   */
+  public JSStreamParser(final ObjectMapper mapper,
+                        final JsonParser parser) {
+    this.mapper = mapper;
+    this.parser = parser;
+  }
+
+  /** Parse the object. For a group the returned object has no
+   * entries - they are passed one at a time to the handler.
+   *
+   * @param entryHandler called for each entry in document order
+   * @return the parsed object without any streamed entries
+   */
+  public JSCalendarObject parse(
+          final Consumer<JSCalendarObject> entryHandler) {
+    while (true) {
+      final var entry = nextEntry();
+      if (entry == null) {
+        break;
+      }
+
+      entryHandler.accept(entry);
+    }
+
+    return getObject();
+  }
+
+  /** Read up to and including the next entry. Properties
+   * encountered on the way are added to the top level object.
+   *
+   * @return next entry or null for no more entries
+   */
+  public JSCalendarObject nextEntry() {
+    if (done) {
+      return null;
+    }
+
+    try {
+      if (top == null) {
+        start();
+      }
+
+      while (true) {
+        var tkn = parser.nextToken();
+
+        if (inEntries) {
+          if (tkn == JsonToken.END_ARRAY) {
+            inEntries = false;
+            continue;
+          }
+
+          return factory.makeCalObj(mapper.readTree(parser));
+        }
+
+        if (tkn != JsonToken.FIELD_NAME) {
+          // End of the object
+          done = true;
+          return null;
+        }
+
+        final var name = parser.getCurrentName();
+        tkn = parser.nextToken();
+
+        if ((tkn == JsonToken.START_ARRAY) && isEntries(name)) {
+          inEntries = true;
+          continue;
+        }
+
+        top.set(name, mapper.readTree(parser));
+      }
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  /** Any entries not yet read are skipped.
+   *
+   * @return the top level object without any streamed entries
+   */
+  public JSCalendarObject getObject() {
+    while (!done) {
+      skipEntries();
+      nextEntry();
+    }
+
+    return factory.makeCalObj(top);
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+
+  private void start() throws IOException {
+    var tkn = parser.currentToken();
+    if (tkn == null) {
+      tkn = parser.nextToken();
+    }
+
+    if (tkn != JsonToken.START_OBJECT) {
+      throw new JsforjException("Not an object node");
+    }
+
+    top = mapper.getNodeFactory().objectNode();
+  }
+
+  private void skipEntries() {
+    if (!inEntries) {
+      return;
+    }
+
+    try {
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        parser.skipChildren();
+      }
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+
+    inEntries = false;
+  }
+
+  /* True if the registered type for the named property is a list
+     of calendar objects.
+   */
+  private boolean isEntries(final String name) {
+    final var ptype = JSFactory.getPropertyType(name);
+    if (ptype == null) {
+      return false;
+    }
+
+    final var typeInfo = JSFactory.getTypeInfo(ptype);
+    if ((typeInfo == null) || !typeInfo.getValueList()) {
+      return false;
+    }
+
+    final var elementTypes = typeInfo.getElementType();
+    if (elementTypes == null) {
+      return false;
+    }
+
+    for (final var etype: elementTypes) {
+      if (JSTypes.typeJSEvent.equals(etype) ||
+              JSTypes.typeJSTask.equals(etype)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,311 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl;
+
+import org.bedework.jsforj.JsforjException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/** Parsers for the fixed formats of the JSCalendar date time and
+ * duration types. Values in the usual form, e.g.
+ * "2020-01-06T09:00:00" or "2020-01-06T09:00:00Z", are parsed by
+ * position without the general java.time formatters. Anything else
+ * falls back to those so is accepted as before.
+ */
+public class JSTemporal {
+  /* Units in the order they must appear - each at most once */
+  private final static String durationUnits = "WDHMS";
+
+  /** A parsed duration. Weeks and days are nominal and are held
+   * separately from the exact time part.
+   */
+  public static class DurationValue {
+    private final Period period;
+    private final Duration time;
+
+    DurationValue(final Period period,
+                  final Duration time) {
+      this.period = period;
+      this.time = time;
+    }
+
+    /**
+     *
+     * @return weeks and days as days
+     */
+    public Period getPeriod() {
+      return period;
+    }
+
+    /**
+     *
+     * @return hours, minutes and seconds
+     */
+    public Duration getTime() {
+      return time;
+    }
+
+    /**
+     *
+     * @return the whole duration with days taken as 24 hours
+     */
+    public Duration getDuration() {
+      return time.plusDays(period.getDays());
+    }
+  }
+
+  private JSTemporal() {
+  }
+
+  /**
+   *
+   * @param val a LocalDateTime, e.g. "2020-01-06T09:00:00"
+   * @return parsed value
+   */
+  public static LocalDateTime parseLocalDateTime(final String val) {
+    final var res = fastParse(val, val.length());
+    if (res != null) {
+      return res;
+    }
+
+    return LocalDateTime.parse(val, DateTimeFormatter.ISO_DATE_TIME);
+  }
+
+  /**
+   *
+   * @param val a UTCDateTime, e.g. "2020-01-06T09:00:00Z"
+   * @return parsed value
+   */
+  public static Instant parseUTCDateTime(final String val) {
+    final int len = val.length();
+    if ((len > 0) && (val.charAt(len - 1) == 'Z')) {
+      final var dt = fastParse(val, len - 1);
+      if (dt != null) {
+        return Instant.ofEpochSecond(dt.toEpochSecond(ZoneOffset.UTC),
+                                     dt.getNano());
+      }
+    }
+
+    return Instant.parse(val);
+  }
+
+  /**
+   *
+   * @param val a Duration or SignedDuration, e.g. "P1DT2H"
+   * @param signed true to allow a leading sign
+   * @return parsed value
+   */
+  public static DurationValue parseDuration(final String val,
+                                            final boolean signed) {
+    final int len = val.length();
+    int pos = 0;
+    boolean negative = false;
+
+    if (signed && (len > 0)) {
+      final char c = val.charAt(0);
+      if ((c == '-') || (c == '+')) {
+        negative = c == '-';
+        pos++;
+      }
+    }
+
+    if ((pos >= len) || (val.charAt(pos) != 'P')) {
+      throw badDuration(val);
+    }
+    pos++;
+
+    try {
+      return duration(val, pos, negative);
+    } catch (final ArithmeticException ae) {
+      throw badDuration(val);
+    }
+  }
+
+  /* Parse the duration from pos, just after the "P". Throws
+     ArithmeticException if a value overflows.
+   */
+  private static DurationValue duration(final String val,
+                                        final int startPos,
+                                        final boolean negative) {
+    final int len = val.length();
+    int pos = startPos;
+    long days = 0;
+    long seconds = 0;
+    long nanos = 0;
+    boolean inTime = false;
+    boolean any = false;
+
+    // Index in durationUnits of the last unit seen
+    int lastUnit = -1;
+
+    while (pos < len) {
+      final char c = val.charAt(pos);
+
+      if (c == 'T') {
+        if (inTime) {
+          throw badDuration(val);
+        }
+        inTime = true;
+        any = false;
+        pos++;
+        continue;
+      }
+
+      long num = 0;
+      final int start = pos;
+      while ((pos < len) && isDigit(val.charAt(pos))) {
+        num = Math.addExact(Math.multiplyExact(num, 10),
+                            val.charAt(pos) - '0');
+        pos++;
+      }
+
+      if ((pos == start) || (pos == len)) {
+        throw badDuration(val);
+      }
+
+      long frac = 0;
+      if (val.charAt(pos) == '.') {
+        pos++;
+        int digits = 0;
+        while ((pos < len) && isDigit(val.charAt(pos))) {
+          if (digits < 9) {
+            frac = frac * 10 + (val.charAt(pos) - '0');
+            digits++;
+          }
+          pos++;
+        }
+
+        if ((digits == 0) || (pos == len) ||
+                (val.charAt(pos) != 'S')) {
+          throw badDuration(val);
+        }
+
+        for (; digits < 9; digits++) {
+          frac *= 10;
+        }
+      }
+
+      final char unit = val.charAt(pos);
+      pos++;
+
+      final int unitIndex = durationUnits.indexOf(unit);
+      if ((unitIndex <= lastUnit) ||
+              // W and D before the T, H, M and S after it
+              (inTime != (unitIndex > 1))) {
+        throw badDuration(val);
+      }
+      lastUnit = unitIndex;
+
+      switch (unit) {
+        case 'W':
+          days = Math.multiplyExact(num, 7);
+          break;
+        case 'D':
+          days = Math.addExact(days, num);
+          break;
+        case 'H':
+          seconds = Math.multiplyExact(num, 3600);
+          break;
+        case 'M':
+          seconds = Math.addExact(seconds,
+                                  Math.multiplyExact(num, 60));
+          break;
+        default:
+          seconds = Math.addExact(seconds, num);
+          nanos = frac;
+      }
+
+      any = true;
+    }
+
+    // Nothing at all, or nothing after a T
+    if (!any) {
+      throw badDuration(val);
+    }
+
+    var period = Period.ofDays(Math.toIntExact(days));
+    var time = Duration.ofSeconds(seconds, nanos);
+
+    if (negative) {
+      period = period.negated();
+      time = time.negated();
+    }
+
+    return new DurationValue(period, time);
+  }
+
+  /* Parse "yyyy-MM-ddTHH:mm:ss[.f]" occupying the first len
+     characters. Null if not in that form.
+   */
+  private static LocalDateTime fastParse(final String val,
+                                         final int len) {
+    if ((len < 19) ||
+            (val.charAt(4) != '-') || (val.charAt(7) != '-') ||
+            (val.charAt(10) != 'T') ||
+            (val.charAt(13) != ':') || (val.charAt(16) != ':')) {
+      return null;
+    }
+
+    final int year = digits(val, 0, 4);
+    final int month = digits(val, 5, 2);
+    final int day = digits(val, 8, 2);
+    final int hour = digits(val, 11, 2);
+    final int minute = digits(val, 14, 2);
+    final int second = digits(val, 17, 2);
+
+    if ((year < 0) || (month < 0) || (day < 0) ||
+            (hour < 0) || (minute < 0) || (second < 0)) {
+      return null;
+    }
+
+    int nanos = 0;
+    if (len > 19) {
+      if ((val.charAt(19) != '.') || (len == 20) || (len > 29)) {
+        return null;
+      }
+
+      final int frac = digits(val, 20, len - 20);
+      if (frac < 0) {
+        return null;
+      }
+
+      nanos = frac;
+      for (int i = len - 20; i < 9; i++) {
+        nanos *= 10;
+      }
+    }
+
+    return LocalDateTime.of(year, month, day,
+                            hour, minute, second, nanos);
+  }
+
+  /* Value of n digits at pos or -1 */
+  private static int digits(final String val,
+                            final int pos,
+                            final int n) {
+    int res = 0;
+    for (int i = pos; i < pos + n; i++) {
+      final char c = val.charAt(i);
+      if (!isDigit(c)) {
+        return -1;
+      }
+      res = res * 10 + (c - '0');
+    }
+
+    return res;
+  }
+
+  private static boolean isDigit(final char c) {
+    return (c >= '0') && (c <= '9');
+  }
+
+  private static JsforjException badDuration(final String val) {
+    return new JsforjException("Bad duration: " + val);
+  }
+}
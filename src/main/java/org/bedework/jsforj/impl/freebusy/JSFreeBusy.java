@@ -0,0 +1,333 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl.freebusy;
+
+import org.bedework.jsforj.impl.JSParallel;
+import org.bedework.jsforj.impl.JSPropertyNames;
+import org.bedework.jsforj.impl.JSTemporal;
+import org.bedework.jsforj.impl.recurrence.JSRecurrenceExpander;
+import org.bedework.jsforj.model.JSCalendarObject;
+import org.bedework.jsforj.model.JSGroup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** Computes the busy time of a collection of calendar objects in a
+ * window. Each object is expanded over the window, instances which
+ * are free or cancelled are dropped and the remaining intervals are
+ * merged with a single sort and sweep.
+ *
+ * <p>The result is a compact array of alternating start and end
+ * times in epoch seconds, in order and with no overlaps - i.e.
+ * {start0, end0, start1, end1, ...}. Intervals are clipped to the
+ * window.</p>
+ *
+ * <p>Values are read from the json of each object so no property or
+ * value objects are built. Overrides may change the start, duration,
+ * freeBusyStatus or status of an instance. An instance is found by
+ * its recurrence id so one moved into the window from outside it is
+ * not seen.</p>
+ */
+public class JSFreeBusy {
+  private final static String statusCancelled = "cancelled";
+  private final static String freeBusyFree = "free";
+
+  private final long fromSecs;
+  private final long toSecs;
+  private final Instant from;
+  private final Instant to;
+  private final ZoneId defaultZone;
+
+  /* Unmerged intervals for one collection */
+  private static class Intervals {
+    long[] starts = new long[16];
+    long[] ends = new long[16];
+    int size;
+
+    void add(final long start,
+             final long end) {
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        ends = Arrays.copyOf(ends, size * 2);
+      }
+
+      starts[size] = start;
+      ends[size] = end;
+      size++;
+    }
+  }
+
+  /**
+   *
+   * @param from start of window - inclusive
+   * @param to end of window - exclusive
+   * @param defaultZone zone for floating times and unknown zone ids
+   */
+  public JSFreeBusy(final Instant from,
+                    final Instant to,
+                    final ZoneId defaultZone) {
+    this.from = from;
+    this.to = to;
+    this.defaultZone = defaultZone;
+    fromSecs = from.getEpochSecond();
+    toSecs = to.getEpochSecond();
+  }
+
+  /**
+   *
+   * @param group collection of objects - nested groups are included
+   * @return merged busy intervals
+   */
+  public long[] busy(final JSGroup group) {
+    return busy(group.getEntries().iterator());
+  }
+
+  /**
+   *
+   * @param objs stream of objects, e.g. from JSMapper.entries
+   * @return merged busy intervals
+   */
+  public long[] busy(final Stream<? extends JSCalendarObject> objs) {
+    return busy(objs.iterator());
+  }
+
+  /**
+   *
+   * @param objs objects to include
+   * @return merged busy intervals
+   */
+  public long[] busy(final Iterator<? extends JSCalendarObject> objs) {
+    final var intervals = new Intervals();
+
+    while (objs.hasNext()) {
+      add(intervals, objs.next());
+    }
+
+    return merge(intervals);
+  }
+
+  /** Compute the busy time for many users in parallel.
+   *
+   * @param groups collection for each user
+   * @param parallelism number of threads to use
+   * @return merged busy intervals for each user
+   */
+  public Map<String, long[]> busyAll(
+          final Map<String, ? extends JSGroup> groups,
+          final int parallelism) {
+    return JSParallel.run(parallelism,
+                          () -> groups.entrySet()
+                                      .parallelStream()
+                                      .collect(Collectors.toMap(
+                                              Map.Entry::getKey,
+                                              e -> busy(e.getValue()),
+                                              (a, b) -> a,
+                                              HashMap::new)));
+  }
+
+  private void add(final Intervals intervals,
+                   final JSCalendarObject obj) {
+    if (obj instanceof JSGroup) {
+      for (final var ent: ((JSGroup)obj).getEntries()) {
+        add(intervals, ent);
+      }
+      return;
+    }
+
+    final JsonNode nd = obj.getNode();
+
+    if (!nd.has(JSPropertyNames.start)) {
+      return;
+    }
+
+    final var zone = zone(nd.path(JSPropertyNames.timeZone)
+                            .asText(null));
+
+    final long duration = durationSecs(nd);
+
+    final var overrides = overrides(nd);
+    if ((overrides == null) && !isBusy(nd, null)) {
+      return;
+    }
+
+    /* Instances are selected by recurrence id - back off by the
+       duration to catch those which start before the window.
+     */
+    final var localFrom = LocalDateTime.ofInstant(from, zone)
+                                       .minusSeconds(duration);
+    final var localTo = LocalDateTime.ofInstant(to, zone);
+
+    final var it = new JSRecurrenceExpander(obj, localFrom, localTo);
+
+    while (it.hasNext()) {
+      final var rid = it.next();
+      var start = rid;
+      long dur = duration;
+
+      final JsonNode patch;
+      if (overrides == null) {
+        patch = null;
+      } else {
+        patch = overrides.get(rid);
+      }
+
+      if (!isBusy(nd, patch)) {
+        continue;
+      }
+
+      if (patch != null) {
+        final var pstart = patch.path(JSPropertyNames.start)
+                                .asText(null);
+        if (pstart != null) {
+          start = JSTemporal.parseLocalDateTime(pstart);
+        }
+
+        if (patch.has(JSPropertyNames.duration)) {
+          dur = durationSecs(patch.get(JSPropertyNames.duration)
+                                  .asText());
+        }
+      }
+
+      final long s = start.atZone(zone).toEpochSecond();
+      final long e = Math.min(s + dur, toSecs);
+      final long cs = Math.max(s, fromSecs);
+
+      if (e > cs) {
+        intervals.add(cs, e);
+      }
+    }
+  }
+
+  /* Custom ids, e.g. "/example.com/tz1", and any others unknown to
+     java.time are treated as the default zone rather than failing
+     the whole computation.
+   */
+  private ZoneId zone(final String tzid) {
+    if (tzid == null) {
+      return defaultZone;
+    }
+
+    try {
+      return ZoneId.of(tzid);
+    } catch (final DateTimeException dte) {
+      return defaultZone;
+    }
+  }
+
+  /* Merge by sorting starts and ends separately then sweeping with a
+     count of open intervals. Starts sort before equal ends so
+     adjacent intervals are joined.
+   */
+  private static long[] merge(final Intervals intervals) {
+    final int n = intervals.size;
+    if (n == 0) {
+      return new long[0];
+    }
+
+    final long[] starts = Arrays.copyOf(intervals.starts, n);
+    final long[] ends = Arrays.copyOf(intervals.ends, n);
+    Arrays.sort(starts);
+    Arrays.sort(ends);
+
+    final long[] res = new long[n * 2];
+    int sz = 0;
+    int open = 0;
+    long busyStart = 0;
+    int j = 0;
+
+    for (int i = 0; i < n; ) {
+      if (starts[i] <= ends[j]) {
+        if (open == 0) {
+          busyStart = starts[i];
+        }
+        open++;
+        i++;
+        continue;
+      }
+
+      open--;
+      if (open == 0) {
+        res[sz] = busyStart;
+        res[sz + 1] = ends[j];
+        sz += 2;
+      }
+      j++;
+    }
+
+    // All starts seen - the last end closes the final interval
+    res[sz] = busyStart;
+    res[sz + 1] = ends[n - 1];
+    sz += 2;
+
+    return Arrays.copyOf(res, sz);
+  }
+
+  /* Overrides keyed by recurrence id - null for none */
+  private static Map<LocalDateTime, JsonNode> overrides(
+          final JsonNode nd) {
+    final var ovs = nd.get(JSPropertyNames.recurrenceOverrides);
+    if ((ovs == null) || (ovs.size() == 0)) {
+      return null;
+    }
+
+    final var res = new HashMap<LocalDateTime, JsonNode>();
+    final var fields = ovs.fields();
+
+    while (fields.hasNext()) {
+      final var fld = fields.next();
+      res.put(JSTemporal.parseLocalDateTime(fld.getKey()),
+              fld.getValue());
+    }
+
+    return res;
+  }
+
+  /* Status and freeBusyStatus of the patch override the master */
+  private static boolean isBusy(final JsonNode master,
+                                final JsonNode patch) {
+    return !statusCancelled.equals(
+            value(master, patch, JSPropertyNames.status)) &&
+            !freeBusyFree.equals(
+                    value(master, patch,
+                          JSPropertyNames.freeBusyStatus));
+  }
+
+  private static String value(final JsonNode master,
+                              final JsonNode patch,
+                              final String name) {
+    if ((patch != null) && patch.has(name)) {
+      return patch.get(name).asText(null);
+    }
+
+    return master.path(name).asText(null);
+  }
+
+  private static long durationSecs(final JsonNode nd) {
+    var dur = nd.path(JSPropertyNames.duration).asText(null);
+    if (dur == null) {
+      dur = nd.path(JSPropertyNames.estimatedDuration).asText(null);
+    }
+
+    if (dur == null) {
+      return 0;
+    }
+
+    return durationSecs(dur);
+  }
+
+  private static long durationSecs(final String val) {
+    return JSTemporal.parseDuration(val, false).getDuration()
+                     .getSeconds();
+  }
+}
@@ -0,0 +1,131 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl.recurrence;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/** Applies the start, count and until of a rule to the candidates
+ * generated by a subclass. Candidates must be delivered in increasing
+ * order - duplicates and those before the start are dropped.
+ */
+abstract class BaseRuleIterator implements Iterator<LocalDateTime> {
+  protected final RecurRule rule;
+  protected final LocalDateTime start;
+  private final LocalDateTime from;
+
+  private boolean startPending;
+  private int emitted;
+  private LocalDateTime last;
+
+  private LocalDateTime nextVal;
+  private boolean done;
+
+  /**
+   *
+   * @param rule the compiled rule
+   * @param start of the series
+   * @param includeStart true if start is always the first instance
+   * @param from no instances before this are returned - may be null
+   */
+  BaseRuleIterator(final RecurRule rule,
+                   final LocalDateTime start,
+                   final boolean includeStart,
+                   final LocalDateTime from) {
+    this.rule = rule;
+    this.start = start;
+    this.from = from;
+    startPending = includeStart;
+  }
+
+  /**
+   *
+   * @return from if the subclass may skip to the period containing
+   *         it, null if expansion must begin at the start
+   */
+  protected LocalDateTime skipTo() {
+    if ((from == null) || (rule.count > 0) || !from.isAfter(start)) {
+      return null;
+    }
+
+    return from;
+  }
+
+  /**
+   *
+   * @return next candidate in order or null for no more
+   */
+  protected abstract LocalDateTime candidate();
+
+  @Override
+  public boolean hasNext() {
+    if (nextVal != null) {
+      return true;
+    }
+
+    if (done) {
+      return false;
+    }
+
+    nextVal = fetch();
+    if (nextVal == null) {
+      done = true;
+      return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public LocalDateTime next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    final var res = nextVal;
+    nextVal = null;
+
+    return res;
+  }
+
+  private LocalDateTime fetch() {
+    while (true) {
+      if ((rule.count > 0) && (emitted >= rule.count)) {
+        return null;
+      }
+
+      final LocalDateTime c;
+
+      if (startPending) {
+        // The start is always an instance
+        startPending = false;
+        c = start;
+      } else {
+        c = candidate();
+        if (c == null) {
+          return null;
+        }
+
+        if (c.isBefore(start) ||
+                ((last != null) && !c.isAfter(last))) {
+          continue;
+        }
+
+        if ((rule.until != null) && c.isAfter(rule.until)) {
+          return null;
+        }
+      }
+
+      emitted++;
+      last = c;
+
+      if ((from != null) && c.isBefore(from)) {
+        continue;
+      }
+
+      return c;
+    }
+  }
+}
@@ -0,0 +1,307 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl.recurrence;
+
+import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.impl.JSPropertyNames;
+import org.bedework.jsforj.impl.JSTemporal;
+import org.bedework.jsforj.model.JSCalendarObject;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/** Expands a recurring master into the local date times of its
+ * instances, lazily and in order. The instances are the start and
+ * those generated by the recurrenceRules, less those generated by
+ * the excludedRecurrenceRules, plus any recurrenceOverrides which add
+ * instances, less any overrides marked as excluded.
+ *
+ * <p>The values are read directly from the json of the master so
+ * no property or value objects are built during expansion. A
+ * non-recurring object yields only its start.</p>
+ *
+ * <p>When limited to a range, rules with no count start expanding at
+ * the period containing the start of the range rather than at the
+ * start of the series, so the cost is proportional to the number of
+ * instances in the range.</p>
+ */
+public class JSRecurrenceExpander implements Iterator<LocalDateTime> {
+  // Fail if this many instances in a row are excluded
+  private final static int maxExcluded = 1_000_000;
+
+  private final PriorityQueue<Source> sources =
+          new PriorityQueue<>();
+  private final List<Source> exclusions = new ArrayList<>();
+  private final TreeSet<LocalDateTime> excluded = new TreeSet<>();
+
+  private final LocalDateTime from;
+  private final LocalDateTime to;
+
+  private LocalDateTime last;
+  private LocalDateTime nextVal;
+
+  /* An iterator with its current value */
+  private static class Source implements Comparable<Source> {
+    private final Iterator<LocalDateTime> it;
+    private LocalDateTime head;
+
+    Source(final Iterator<LocalDateTime> it) {
+      this.it = it;
+      advance();
+    }
+
+    boolean advance() {
+      if (it.hasNext()) {
+        head = it.next();
+      } else {
+        head = null;
+      }
+
+      return head != null;
+    }
+
+    @Override
+    public int compareTo(final Source that) {
+      return head.compareTo(that.head);
+    }
+  }
+
+  /**
+   *
+   * @param master the recurring object
+   */
+  public JSRecurrenceExpander(final JSCalendarObject master) {
+    this(master, null, null);
+  }
+
+  /**
+   *
+   * @param master the recurring object
+   * @param from no instances before this - null for no limit
+   * @param to no instances at or after this - null for no limit
+   */
+  public JSRecurrenceExpander(final JSCalendarObject master,
+                              final LocalDateTime from,
+                              final LocalDateTime to) {
+    this.from = from;
+    this.to = to;
+
+    final JsonNode nd = master.getNode();
+    final var startVal = nd.path(JSPropertyNames.start).asText(null);
+    if (startVal == null) {
+      throw new JsforjException("No start for recurrence expansion");
+    }
+
+    final var start = JSTemporal.parseLocalDateTime(startVal);
+
+    final var rules = nd.get(JSPropertyNames.recurrenceRules);
+    if ((rules == null) || (rules.size() == 0)) {
+      addSource(Collections.singleton(start).iterator());
+    } else {
+      for (final var rnd: rules) {
+        addSource(RecurRule.parse(rnd).iterator(start, true, from));
+      }
+    }
+
+    final var exrules = nd.get(JSPropertyNames.excludedRecurrenceRules);
+    if (exrules != null) {
+      for (final var rnd: exrules) {
+        final var src = new Source(RecurRule.parse(rnd)
+                                            .iterator(start, false,
+                                                      from));
+        if (src.head != null) {
+          exclusions.add(src);
+        }
+      }
+    }
+
+    final var overrides = nd.get(JSPropertyNames.recurrenceOverrides);
+    if (overrides != null) {
+      final var added = new TreeSet<LocalDateTime>();
+      final var fields = overrides.fields();
+
+      while (fields.hasNext()) {
+        final var fld = fields.next();
+        final var rid = JSTemporal.parseLocalDateTime(fld.getKey());
+
+        if (!inRange(rid)) {
+          continue;
+        }
+
+        if (fld.getValue().path(JSPropertyNames.excluded)
+               .asBoolean(false)) {
+          excluded.add(rid);
+        } else {
+          added.add(rid);
+        }
+      }
+
+      if (!added.isEmpty()) {
+        addSource(added.iterator());
+      }
+    }
+  }
+
+  /**
+   *
+   * @param master the recurring object
+   * @return stream of the instances in order
+   */
+  public static Stream<LocalDateTime> stream(
+          final JSCalendarObject master) {
+    return stream(master, null, null);
+  }
+
+  /**
+   *
+   * @param master the recurring object
+   * @param from no instances before this - null for no limit
+   * @param to no instances at or after this - null for no limit
+   * @return stream of the instances in the range in order
+   */
+  public static Stream<LocalDateTime> stream(
+          final JSCalendarObject master,
+          final LocalDateTime from,
+          final LocalDateTime to) {
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                    new JSRecurrenceExpander(master, from, to),
+                    Spliterator.ORDERED | Spliterator.SORTED |
+                            Spliterator.DISTINCT |
+                            Spliterator.NONNULL),
+            false);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (nextVal == null) {
+      nextVal = fetch();
+    }
+
+    return nextVal != null;
+  }
+
+  @Override
+  public LocalDateTime next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    final var res = nextVal;
+    nextVal = null;
+
+    return res;
+  }
+
+  private void addSource(final Iterator<LocalDateTime> it) {
+    final var src = new Source(it);
+    if (src.head != null) {
+      sources.add(src);
+    }
+  }
+
+  private LocalDateTime fetch() {
+    int skipped = 0;
+
+    while (!sources.isEmpty()) {
+      final LocalDateTime c;
+
+      if (sources.size() == 1) {
+        // Usual case - no need to reorder
+        final var src = sources.peek();
+        c = src.head;
+
+        if (!src.advance()) {
+          sources.clear();
+        }
+      } else {
+        final var src = sources.poll();
+        c = src.head;
+
+        if (src.advance()) {
+          sources.add(src);
+        }
+      }
+
+      if ((to != null) && !c.isBefore(to)) {
+        // Sources are in order so nothing more in range
+        sources.clear();
+        return null;
+      }
+
+      if ((last != null) && !c.isAfter(last)) {
+        // Generated by more than one rule
+        continue;
+      }
+
+      if ((from != null) && c.isBefore(from)) {
+        continue;
+      }
+
+      last = c;
+
+      if (isExcluded(c)) {
+        skipped++;
+        if (skipped > maxExcluded) {
+          throw new JsforjException("Expansion abandoned: more than " +
+                                            maxExcluded +
+                                            " instances in a row " +
+                                            "excluded");
+        }
+        continue;
+      }
+
+      return c;
+    }
+
+    return null;
+  }
+
+  private boolean inRange(final LocalDateTime val) {
+    return ((from == null) || !val.isBefore(from)) &&
+            ((to == null) || val.isBefore(to));
+  }
+
+  private boolean isExcluded(final LocalDateTime val) {
+    if (excluded.contains(val)) {
+      return true;
+    }
+
+    var res = false;
+    final var it = exclusions.iterator();
+
+    while (it.hasNext()) {
+      final var ex = it.next();
+
+      while (ex.head.isBefore(val)) {
+        if (!ex.advance()) {
+          break;
+        }
+      }
+
+      if (ex.head == null) {
+        it.remove();
+        continue;
+      }
+
+      if (ex.head.equals(val)) {
+        res = true;
+      }
+    }
+
+    return res;
+  }
+}
@@ -0,0 +1,291 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl.recurrence;
+
+import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.impl.JSPropertyNames;
+import org.bedework.jsforj.impl.JSTemporal;
+import org.bedework.jsforj.impl.values.collections.JSNumberArrayImpl;
+import org.bedework.jsforj.model.values.JSRecurrenceRule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+
+/** A recurrence rule read from its json node into primitive form
+ * ready for expansion.
+ */
+class RecurRule {
+  final static String skipOmit = "omit";
+  final static String skipBackward = "backward";
+  final static String skipForward = "forward";
+
+  final static int[] none = new int[0];
+
+  ChronoUnit freq;
+  int interval = 1;
+
+  // Values are DayOfWeek.getValue() with matching nth - 0 for all
+  int[] byDayDow = none;
+  int[] byDayNth = none;
+
+  int[] byMonth = none;
+  int[] byMonthDay = none;
+  int[] byYearDay = none;
+  int[] byWeekNo = none;
+  int[] byHour = none;
+  int[] byMinute = none;
+  int[] bySecond = none;
+  int[] bySetPosition = none;
+
+  /* Bit masks of the BY parts so that matching is a bit test. Month
+     days are offset by 31, year days by 366 and weeks by 53 so that
+     negative values have a bit. Only valid when the part is present.
+   */
+  int monthMask;
+  long monthDayMask;
+  BitSet yearDayMask;
+  BitSet weekNoMask;
+  long hourMask;
+  long minuteMask;
+  long secondMask;
+
+  // 0 for no count
+  int count;
+
+  LocalDateTime until;
+
+  String skip = skipOmit;
+
+  DayOfWeek firstDayOfWeek = DayOfWeek.MONDAY;
+
+  /**
+   *
+   * @param nd json for a recurrence rule
+   * @return compiled rule
+   */
+  static RecurRule parse(final JsonNode nd) {
+    if ((nd == null) || !nd.isObject()) {
+      throw new JsforjException("Recurrence rule is not an object");
+    }
+
+    final var rule = new RecurRule();
+
+    rule.freq = toFreq(nd.path(JSPropertyNames.frequency).asText(null));
+
+    final var rscale = nd.path(JSPropertyNames.rscale).asText(null);
+    if ((rscale != null) && !"gregorian".equalsIgnoreCase(rscale)) {
+      throw new JsforjException("Unsupported rscale: " + rscale);
+    }
+
+    rule.interval = nd.path(JSPropertyNames.interval).asInt(1);
+    if (rule.interval < 1) {
+      throw new JsforjException("Bad interval: " + rule.interval);
+    }
+
+    rule.skip = nd.path(JSPropertyNames.skip).asText(skipOmit);
+
+    final var fdow = nd.path(JSPropertyNames.firstDayOfWeek)
+                       .asText(null);
+    if (fdow != null) {
+      rule.firstDayOfWeek = toDay(fdow);
+    }
+
+    final var byDay = nd.get(JSPropertyNames.byDay);
+    if ((byDay != null) && (byDay.size() > 0)) {
+      rule.byDayDow = new int[byDay.size()];
+      rule.byDayNth = new int[byDay.size()];
+
+      for (int i = 0; i < byDay.size(); i++) {
+        final var nday = byDay.get(i);
+        rule.byDayDow[i] =
+                toDay(nday.path(JSPropertyNames.day).asText())
+                        .getValue();
+        rule.byDayNth[i] =
+                nday.path(JSPropertyNames.nthOfPeriod).asInt(0);
+      }
+    }
+
+    rule.byMonth = months(nd.get(JSPropertyNames.byMonth));
+    rule.byMonthDay = ints(nd.get(JSPropertyNames.byMonthDay), false);
+    rule.byYearDay = ints(nd.get(JSPropertyNames.byYearDay), false);
+    rule.byWeekNo = ints(nd.get(JSPropertyNames.byWeekNo), false);
+    rule.byHour = ints(nd.get(JSPropertyNames.byHour), true);
+    rule.byMinute = ints(nd.get(JSPropertyNames.byMinute), true);
+    rule.bySecond = ints(nd.get(JSPropertyNames.bySecond), true);
+    rule.bySetPosition =
+            ints(nd.get(JSPropertyNames.bySetPosition), false);
+
+    // The same masks as the JSIntArray accessors give
+    rule.monthMask = (int)JSNumberArrayImpl.mask(rule.byMonth, 0);
+    rule.monthDayMask = JSNumberArrayImpl.mask(rule.byMonthDay, 31);
+    rule.yearDayMask = JSNumberArrayImpl.bitSet(rule.byYearDay, 366);
+    rule.weekNoMask = JSNumberArrayImpl.bitSet(rule.byWeekNo, 53);
+    rule.hourMask = JSNumberArrayImpl.mask(rule.byHour, 0);
+    rule.minuteMask = JSNumberArrayImpl.mask(rule.byMinute, 0);
+    rule.secondMask = JSNumberArrayImpl.mask(rule.bySecond, 0);
+
+    rule.count = nd.path(JSPropertyNames.count).asInt(0);
+
+    final var until = nd.path(JSPropertyNames.until).asText(null);
+    if (until != null) {
+      rule.until = JSTemporal.parseLocalDateTime(until);
+    }
+
+    return rule;
+  }
+
+  /** True if the rule can be expanded with simple date arithmetic -
+   * DAILY with no BY parts or WEEKLY with at most a plain byDay.
+   *
+   * @return true for the fast path
+   */
+  boolean isSimple() {
+    if ((byMonth.length > 0) || (byMonthDay.length > 0) ||
+            (byYearDay.length > 0) || (byWeekNo.length > 0) ||
+            (byHour.length > 0) || (byMinute.length > 0) ||
+            (bySecond.length > 0) || (bySetPosition.length > 0)) {
+      return false;
+    }
+
+    if (freq == ChronoUnit.DAYS) {
+      return byDayDow.length == 0;
+    }
+
+    if (freq != ChronoUnit.WEEKS) {
+      return false;
+    }
+
+    for (final var nth: byDayNth) {
+      if (nth != 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   *
+   * @param start of the series
+   * @param includeStart true if start is always the first instance
+   * @return iterator over the instances in order
+   */
+  Iterator<LocalDateTime> iterator(final LocalDateTime start,
+                                   final boolean includeStart) {
+    return iterator(start, includeStart, null);
+  }
+
+  /** With no count the expansion jumps straight to the period
+   * containing from - otherwise it must start at the start to count
+   * the instances.
+   *
+   * @param start of the series
+   * @param includeStart true if start is always the first instance
+   * @param from no instances before this are returned - may be null
+   * @return iterator over the instances in order
+   */
+  Iterator<LocalDateTime> iterator(final LocalDateTime start,
+                                   final boolean includeStart,
+                                   final LocalDateTime from) {
+    if (isSimple()) {
+      return new SimpleRuleIterator(this, start, includeStart, from);
+    }
+
+    return new RuleIterator(this, start, includeStart, from);
+  }
+
+  static DayOfWeek toDay(final String val) {
+    switch (val.toLowerCase()) {
+      case "mo":
+        return DayOfWeek.MONDAY;
+      case "tu":
+        return DayOfWeek.TUESDAY;
+      case "we":
+        return DayOfWeek.WEDNESDAY;
+      case "th":
+        return DayOfWeek.THURSDAY;
+      case "fr":
+        return DayOfWeek.FRIDAY;
+      case "sa":
+        return DayOfWeek.SATURDAY;
+      case "su":
+        return DayOfWeek.SUNDAY;
+      default:
+        throw new JsforjException("Bad day: " + val);
+    }
+  }
+
+  private static ChronoUnit toFreq(final String val) {
+    if (val == null) {
+      throw new JsforjException("No frequency for recurrence rule");
+    }
+
+    switch (val) {
+      case JSRecurrenceRule.freqYearly:
+        return ChronoUnit.YEARS;
+      case JSRecurrenceRule.freqMonthly:
+        return ChronoUnit.MONTHS;
+      case JSRecurrenceRule.freqWeekly:
+        return ChronoUnit.WEEKS;
+      case JSRecurrenceRule.freqDaily:
+        return ChronoUnit.DAYS;
+      case JSRecurrenceRule.freqHourly:
+        return ChronoUnit.HOURS;
+      case JSRecurrenceRule.freqMinutely:
+        return ChronoUnit.MINUTES;
+      case JSRecurrenceRule.freqSecondly:
+        return ChronoUnit.SECONDS;
+      default:
+        throw new JsforjException("Bad frequency: " + val);
+    }
+  }
+
+  private static int[] ints(final JsonNode nd,
+                            final boolean sort) {
+    if ((nd == null) || (nd.size() == 0)) {
+      return none;
+    }
+
+    final var res = JSNumberArrayImpl.ints(nd);
+    if (sort) {
+      Arrays.sort(res);
+    }
+
+    return res;
+  }
+
+  /* Months are strings - a trailing "L" is a leap month which does
+     not occur in the gregorian calendar so is dropped.
+   */
+  private static int[] months(final JsonNode nd) {
+    if ((nd == null) || (nd.size() == 0)) {
+      return none;
+    }
+
+    final var res = new int[nd.size()];
+    int n = 0;
+    for (final var el: nd) {
+      final var s = el.asText();
+      if (s.endsWith("L")) {
+        continue;
+      }
+
+      res[n] = Integer.parseInt(s);
+      n++;
+    }
+
+    if (n == 0) {
+      // Only leap months - never matches
+      return new int[]{0};
+    }
+
+    return Arrays.copyOf(res, n);
+  }
+}
@@ -0,0 +1,529 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl.recurrence;
+
+import org.bedework.jsforj.JsforjException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.List;
+
+/** General expansion of a rule following RFC 5545 - each period of
+ * the frequency is expanded by the BY parts then limited by
+ * bySetPosition.
+ *
+ * <p>Only the gregorian calendar is supported. Days which do not
+ * exist in a month, e.g. byMonthDay 31 in April, are handled
+ * according to the skip property of RFC 7529.</p>
+ */
+class RuleIterator extends BaseRuleIterator {
+  // Fail after this many periods in a row with no instances
+  private final static int maxEmptyPeriods = 1_000_000;
+
+  // Period the nth of a byDay counts within
+  private final static int relNone = 0;
+  private final static int relMonth = 1;
+  private final static int relYear = 2;
+
+  private final static int[] allMonths =
+          {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+
+  private final WeekFields weekFields;
+
+  private final int[] hours;
+  private final int[] minutes;
+  private final int[] seconds;
+
+  private LocalDateTime period;
+  private int emptyPeriods;
+
+  private final List<LocalDate> dates = new ArrayList<>();
+  private final List<LocalDateTime> buffer = new ArrayList<>();
+  private int bufferIndex;
+
+  RuleIterator(final RecurRule rule,
+               final LocalDateTime start,
+               final boolean includeStart,
+               final LocalDateTime from) {
+    super(rule, start, includeStart, from);
+
+    weekFields = WeekFields.of(rule.firstDayOfWeek, 4);
+
+    hours = orDefault(rule.byHour, start.getHour());
+    minutes = orDefault(rule.byMinute, start.getMinute());
+    seconds = orDefault(rule.bySecond, start.getSecond());
+
+    period = align(start);
+
+    final var skipTo = skipTo();
+    if (skipTo != null) {
+      /* Jump to the period before the one containing from - an
+         instance moved forward by skip may come from there.
+       */
+      final long periods = rule.freq.between(period, align(skipTo)) /
+              rule.interval;
+      if (periods > 1) {
+        period = period.plus((periods - 1) * rule.interval, rule.freq);
+      }
+    }
+  }
+
+  @Override
+  protected LocalDateTime candidate() {
+    while (bufferIndex >= buffer.size()) {
+      if (emptyPeriods > maxEmptyPeriods) {
+        throw new JsforjException("Expansion abandoned: no instances " +
+                                          "in " + maxEmptyPeriods +
+                                          " periods");
+      }
+
+      if ((rule.until != null) && period.isAfter(rule.until)) {
+        return null;
+      }
+
+      expand(period);
+      period = period.plus(rule.interval, rule.freq);
+
+      if (buffer.isEmpty()) {
+        emptyPeriods++;
+      } else {
+        emptyPeriods = 0;
+      }
+    }
+
+    final var res = buffer.get(bufferIndex);
+    bufferIndex++;
+
+    return res;
+  }
+
+  /* Start of the period containing the date time */
+  private LocalDateTime align(final LocalDateTime dt) {
+    switch (rule.freq) {
+      case YEARS:
+        return dt.toLocalDate().withDayOfYear(1).atStartOfDay();
+      case MONTHS:
+        return dt.toLocalDate().withDayOfMonth(1).atStartOfDay();
+      case WEEKS:
+        return dt.toLocalDate()
+                 .with(TemporalAdjusters.previousOrSame(
+                         rule.firstDayOfWeek))
+                 .atStartOfDay();
+      case DAYS:
+        return dt.toLocalDate().atStartOfDay();
+      default:
+        return dt.truncatedTo(rule.freq);
+    }
+  }
+
+  private void expand(final LocalDateTime p) {
+    buffer.clear();
+    bufferIndex = 0;
+    dates.clear();
+
+    switch (rule.freq) {
+      case YEARS:
+        datesInYear(p.getYear());
+        break;
+      case MONTHS:
+        datesInMonth(p.getYear(), p.getMonthValue());
+        break;
+      case WEEKS:
+        datesInWeek(p.toLocalDate());
+        break;
+      case DAYS:
+        if (limitDate(p.toLocalDate())) {
+          dates.add(p.toLocalDate());
+        }
+        break;
+      default:
+        expandTime(p);
+        setPositions();
+        return;
+    }
+
+    dates.sort(null);
+
+    LocalDate prev = null;
+    for (final var d: dates) {
+      if (d.equals(prev)) {
+        continue;
+      }
+      prev = d;
+
+      for (final var h: hours) {
+        for (final var m: minutes) {
+          for (final var s: seconds) {
+            buffer.add(d.atTime(h, m, s));
+          }
+        }
+      }
+    }
+
+    setPositions();
+  }
+
+  /* HOURLY, MINUTELY and SECONDLY - BY parts at or above the
+     frequency limit, those below expand.
+   */
+  private void expandTime(final LocalDateTime p) {
+    if (!limitDate(p.toLocalDate())) {
+      return;
+    }
+
+    if ((rule.byHour.length > 0) &&
+            !isSet(rule.hourMask, p.getHour())) {
+      return;
+    }
+
+    if (rule.freq == ChronoUnit.HOURS) {
+      for (final var m: minutes) {
+        for (final var s: seconds) {
+          buffer.add(p.withMinute(m).withSecond(s));
+        }
+      }
+      return;
+    }
+
+    if ((rule.byMinute.length > 0) &&
+            !isSet(rule.minuteMask, p.getMinute())) {
+      return;
+    }
+
+    if (rule.freq == ChronoUnit.MINUTES) {
+      for (final var s: seconds) {
+        buffer.add(p.withSecond(s));
+      }
+      return;
+    }
+
+    if ((rule.bySecond.length > 0) &&
+            !isSet(rule.secondMask, p.getSecond())) {
+      return;
+    }
+
+    buffer.add(p);
+  }
+
+  private void datesInYear(final int year) {
+    final boolean noDayParts = (rule.byYearDay.length == 0) &&
+            (rule.byWeekNo.length == 0) &&
+            (rule.byMonthDay.length == 0) &&
+            (rule.byDayDow.length == 0);
+
+    if (noDayParts) {
+      final int[] months;
+      if (rule.byMonth.length > 0) {
+        months = rule.byMonth;
+      } else {
+        months = new int[]{start.getMonthValue()};
+      }
+
+      for (final var m: months) {
+        addDay(year, m, start.getDayOfMonth(), false);
+      }
+      return;
+    }
+
+    if (rule.byWeekNo.length > 0) {
+      // Weeks may start in the previous year or end in the next
+      final var end = LocalDate.of(year, 12, 31).plusDays(7);
+
+      for (var d = LocalDate.of(year, 1, 1).minusDays(7);
+           d.isBefore(end);
+           d = d.plusDays(1)) {
+        if (d.get(weekFields.weekBasedYear()) != year) {
+          continue;
+        }
+
+        if (!matchesWeekNo(d) ||
+                !limitMonth(d) ||
+                !matchesYearDay(d) ||
+                !matchesMonthDay(d)) {
+          continue;
+        }
+
+        if (rule.byDayDow.length > 0) {
+          if (!matchesByDay(d, relNone)) {
+            continue;
+          }
+        } else if ((rule.byYearDay.length == 0) &&
+                (rule.byMonthDay.length == 0) &&
+                (d.getDayOfWeek() != start.getDayOfWeek())) {
+          continue;
+        }
+
+        dates.add(d);
+      }
+      return;
+    }
+
+    final int rel;
+    if (rule.byMonth.length > 0) {
+      rel = relMonth;
+    } else {
+      rel = relYear;
+    }
+
+    if ((rule.byMonthDay.length > 0) && (rule.byYearDay.length == 0)) {
+      final int[] months;
+      if (rule.byMonth.length > 0) {
+        months = rule.byMonth;
+      } else {
+        months = allMonths;
+      }
+
+      for (final var m: months) {
+        for (final var md: rule.byMonthDay) {
+          addDay(year, m, md, true);
+        }
+      }
+      return;
+    }
+
+    final var end = LocalDate.of(year + 1, 1, 1);
+    for (var d = LocalDate.of(year, 1, 1);
+         d.isBefore(end);
+         d = d.plusDays(1)) {
+      if (!limitMonth(d) ||
+              !matchesYearDay(d) ||
+              !matchesMonthDay(d) ||
+              !matchesByDay(d, rel)) {
+        continue;
+      }
+
+      dates.add(d);
+    }
+  }
+
+  private void datesInMonth(final int year,
+                            final int month) {
+    if ((rule.byMonth.length > 0) && !isSet(rule.monthMask, month)) {
+      return;
+    }
+
+    if (rule.byMonthDay.length > 0) {
+      for (final var md: rule.byMonthDay) {
+        addDay(year, month, md, true);
+      }
+      return;
+    }
+
+    if (rule.byDayDow.length == 0) {
+      addDay(year, month, start.getDayOfMonth(), false);
+      return;
+    }
+
+    final var ym = YearMonth.of(year, month);
+    final int len = ym.lengthOfMonth();
+    for (int i = 1; i <= len; i++) {
+      final var d = ym.atDay(i);
+      if (matchesByDay(d, relMonth)) {
+        dates.add(d);
+      }
+    }
+  }
+
+  private void datesInWeek(final LocalDate weekStart) {
+    for (int i = 0; i < 7; i++) {
+      final var d = weekStart.plusDays(i);
+
+      if (!limitMonth(d)) {
+        continue;
+      }
+
+      if (rule.byDayDow.length > 0) {
+        if (!matchesByDay(d, relNone)) {
+          continue;
+        }
+      } else if (d.getDayOfWeek() != start.getDayOfWeek()) {
+        continue;
+      }
+
+      dates.add(d);
+    }
+  }
+
+  /* Add a day of the month - handling days which don't exist in the
+     month according to skip.
+   */
+  private void addDay(final int year,
+                      final int month,
+                      final int monthDay,
+                      final boolean filterByDay) {
+    if ((month < 1) || (month > 12)) {
+      return;
+    }
+
+    final var ym = YearMonth.of(year, month);
+    final int len = ym.lengthOfMonth();
+
+    final int d;
+    if (monthDay > 0) {
+      d = monthDay;
+    } else {
+      d = len + monthDay + 1;
+    }
+
+    final LocalDate date;
+
+    if ((d >= 1) && (d <= len)) {
+      date = ym.atDay(d);
+    } else if (RecurRule.skipBackward.equals(rule.skip)) {
+      if (d > len) {
+        date = ym.atEndOfMonth();
+      } else {
+        date = ym.atDay(1).minusDays(1);
+      }
+    } else if (RecurRule.skipForward.equals(rule.skip)) {
+      if (d > len) {
+        date = ym.atEndOfMonth().plusDays(1);
+      } else {
+        date = ym.atDay(1);
+      }
+    } else {
+      return;
+    }
+
+    if (filterByDay && (rule.byDayDow.length > 0) &&
+            !matchesByDay(date, relMonth)) {
+      return;
+    }
+
+    dates.add(date);
+  }
+
+  /* BY parts which limit a DAILY or shorter frequency */
+  private boolean limitDate(final LocalDate d) {
+    return limitMonth(d) &&
+            matchesMonthDay(d) &&
+            matchesYearDay(d) &&
+            matchesByDay(d, relNone);
+  }
+
+  private boolean limitMonth(final LocalDate d) {
+    return (rule.byMonth.length == 0) ||
+            isSet(rule.monthMask, d.getMonthValue());
+  }
+
+  private boolean matchesMonthDay(final LocalDate d) {
+    if (rule.byMonthDay.length == 0) {
+      return true;
+    }
+
+    final int dom = d.getDayOfMonth();
+
+    // Bits are offset by 31 - test the positive and negative forms
+    return isSet(rule.monthDayMask, dom + 31) ||
+            isSet(rule.monthDayMask, dom - d.lengthOfMonth() - 1 + 31);
+  }
+
+  private boolean matchesYearDay(final LocalDate d) {
+    if (rule.byYearDay.length == 0) {
+      return true;
+    }
+
+    final int doy = d.getDayOfYear();
+
+    return rule.yearDayMask.get(doy + 366) ||
+            rule.yearDayMask.get(doy - d.lengthOfYear() - 1 + 366);
+  }
+
+  private boolean matchesWeekNo(final LocalDate d) {
+    final int wn = d.get(weekFields.weekOfWeekBasedYear());
+    final int weeks = (int)d.range(weekFields.weekOfWeekBasedYear())
+                            .getMaximum();
+
+    return rule.weekNoMask.get(wn + 53) ||
+            rule.weekNoMask.get(wn - weeks - 1 + 53);
+  }
+
+  /* With relNone any nth is ignored */
+  private boolean matchesByDay(final LocalDate d,
+                               final int rel) {
+    if (rule.byDayDow.length == 0) {
+      return true;
+    }
+
+    final int dow = d.getDayOfWeek().getValue();
+
+    for (int i = 0; i < rule.byDayDow.length; i++) {
+      if (rule.byDayDow[i] != dow) {
+        continue;
+      }
+
+      final int nth = rule.byDayNth[i];
+      if (nth == 0) {
+        return true;
+      }
+
+      final int pos;
+      final int len;
+      if (rel == relMonth) {
+        pos = d.getDayOfMonth();
+        len = d.lengthOfMonth();
+      } else if (rel == relYear) {
+        pos = d.getDayOfYear();
+        len = d.lengthOfYear();
+      } else {
+        return true;
+      }
+
+      if (nth > 0) {
+        if ((pos - 1) / 7 + 1 == nth) {
+          return true;
+        }
+      } else if ((len - pos) / 7 + 1 == -nth) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private void setPositions() {
+    if ((rule.bySetPosition.length == 0) || buffer.isEmpty()) {
+      return;
+    }
+
+    final var res = new ArrayList<LocalDateTime>();
+    final int sz = buffer.size();
+
+    for (final var pos: rule.bySetPosition) {
+      final int i;
+      if (pos > 0) {
+        i = pos - 1;
+      } else {
+        i = sz + pos;
+      }
+
+      if ((i >= 0) && (i < sz)) {
+        res.add(buffer.get(i));
+      }
+    }
+
+    res.sort(null);
+    buffer.clear();
+    buffer.addAll(res);
+  }
+
+  private static int[] orDefault(final int[] vals,
+                                 final int def) {
+    if (vals.length > 0) {
+      return vals;
+    }
+
+    return new int[]{def};
+  }
+
+  private static boolean isSet(final long mask,
+                               final int bit) {
+    return (bit >= 0) && (bit < 64) && ((mask & (1L << bit)) != 0);
+  }
+}
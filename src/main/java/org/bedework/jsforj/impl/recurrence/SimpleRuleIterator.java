@@ -0,0 +1,173 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl.recurrence;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Year;
+import java.time.temporal.ChronoUnit;
+
+/** Fast path for DAILY and WEEKLY rules with no BY parts other than
+ * a plain byDay. Steps over the days with int arithmetic and no per
+ * period expansion - the time of day is that of the start.
+ */
+class SimpleRuleIterator extends BaseRuleIterator {
+  private final LocalTime time;
+  private final boolean daily;
+
+  // Offsets into the week of the selected days in order
+  private final int[] offsets;
+  private int offsetIndex;
+
+  // Current day for DAILY - start of week for WEEKLY
+  private int year;
+  private int month;
+  private int day;
+
+  SimpleRuleIterator(final RecurRule rule,
+                     final LocalDateTime start,
+                     final boolean includeStart,
+                     final LocalDateTime from) {
+    super(rule, start, includeStart, from);
+
+    time = start.toLocalTime();
+    daily = rule.freq == ChronoUnit.DAYS;
+
+    final int fdow = rule.firstDayOfWeek.getValue();
+    final int startDow = start.getDayOfWeek().getValue();
+
+    final var skipTo = skipTo();
+
+    if (daily) {
+      offsets = null;
+
+      var first = start.toLocalDate();
+      if (skipTo != null) {
+        final long days = ChronoUnit.DAYS.between(first,
+                                                  skipTo.toLocalDate());
+        first = first.plusDays(days / rule.interval * rule.interval);
+      }
+
+      setDay(first);
+      return;
+    }
+
+    // Bit (dow - 1) is set for each selected day
+    int mask = 0;
+    if (rule.byDayDow.length == 0) {
+      mask = 1 << (startDow - 1);
+    } else {
+      for (final var dow: rule.byDayDow) {
+        mask |= 1 << (dow - 1);
+      }
+    }
+
+    final var offs = new int[7];
+    int n = 0;
+    for (int i = 0; i < 7; i++) {
+      final int dow = ((fdow - 1 + i) % 7) + 1;
+      if ((mask & (1 << (dow - 1))) != 0) {
+        offs[n] = i;
+        n++;
+      }
+    }
+
+    offsets = new int[n];
+    System.arraycopy(offs, 0, offsets, 0, n);
+
+    var weekStart =
+            start.toLocalDate().minusDays((startDow - fdow + 7) % 7);
+    if (skipTo != null) {
+      final long weeks = ChronoUnit.WEEKS.between(weekStart,
+                                                  skipTo.toLocalDate());
+      weekStart = weekStart.plusWeeks(weeks / rule.interval *
+                                              rule.interval);
+    }
+
+    setDay(weekStart);
+  }
+
+  @Override
+  protected LocalDateTime candidate() {
+    if (daily) {
+      final var res = LocalDateTime.of(year, month, day,
+                                       time.getHour(),
+                                       time.getMinute(),
+                                       time.getSecond(),
+                                       time.getNano());
+      addDays(rule.interval);
+      return res;
+    }
+
+    if (offsets.length == 0) {
+      return null;
+    }
+
+    // Day of the week relative to the current week start
+    int y = year;
+    int m = month;
+    int d = day + offsets[offsetIndex];
+    final int len = lengthOfMonth(y, m);
+    if (d > len) {
+      d -= len;
+      m++;
+      if (m > 12) {
+        m = 1;
+        y++;
+      }
+    }
+
+    offsetIndex++;
+    if (offsetIndex == offsets.length) {
+      offsetIndex = 0;
+      addDays(7 * rule.interval);
+    }
+
+    return LocalDateTime.of(y, m, d,
+                            time.getHour(),
+                            time.getMinute(),
+                            time.getSecond(),
+                            time.getNano());
+  }
+
+  private void setDay(final LocalDate date) {
+    year = date.getYear();
+    month = date.getMonthValue();
+    day = date.getDayOfMonth();
+  }
+
+  private void addDays(final int n) {
+    day += n;
+
+    while (true) {
+      final int len = lengthOfMonth(year, month);
+      if (day <= len) {
+        return;
+      }
+
+      day -= len;
+      month++;
+      if (month > 12) {
+        month = 1;
+        year++;
+      }
+    }
+  }
+
+  private static int lengthOfMonth(final int year,
+                                   final int month) {
+    switch (month) {
+      case 2:
+        return Year.isLeap(year) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+}
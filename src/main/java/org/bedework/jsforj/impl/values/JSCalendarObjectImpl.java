@@ -5,6 +5,7 @@ package org.bedework.jsforj.impl.values;
 
 import org.bedework.jsforj.JsforjException;
 import org.bedework.jsforj.impl.JSPropertyNames;
+import org.bedework.jsforj.impl.recurrence.JSRecurrenceExpander;
 import org.bedework.jsforj.model.JSCalendarObject;
 import org.bedework.jsforj.model.JSTypes;
 import org.bedework.jsforj.model.values.collections.JSAlerts;
@@ -21,6 +22,10 @@ import org.bedework.jsforj.model.values.dataTypes.JSLocalDateTime;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * User: mike Date: 10/24/19 Time: 17:09
  */
@@ -171,4 +176,13 @@ public class JSCalendarObjectImpl extends JSValueImpl
     return getValue(new TypeReference<>() {},
                     JSPropertyNames.relatedTo, create);
   }
+
+  @Override
+  public List<LocalDateTime> getOccurrences(final LocalDateTime from,
+                                            final LocalDateTime to) {
+    final List<LocalDateTime> res = new ArrayList<>();
+    new JSRecurrenceExpander(this, from, to).forEachRemaining(res::add);
+
+    return res;
+  }
 }
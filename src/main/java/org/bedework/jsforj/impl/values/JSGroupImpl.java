@@ -53,6 +53,42 @@ public class JSGroupImpl extends JSCalendarObjectImpl
     entsVal.add(val);
   }
 
+  @Override
+  public JSCalendarObject findByUid(final String uid,
+                                    final String recurrenceId) {
+    final var entsVal = getEntsVal();
+
+    if (entsVal == null) {
+      return null;
+    }
+
+    return entsVal.find(uid, recurrenceId);
+  }
+
+  @Override
+  public void replaceByUid(final JSCalendarObject val) {
+    final var entsVal = getEntsVal();
+
+    if (entsVal == null) {
+      addEntry(val);
+      return;
+    }
+
+    entsVal.replace(val);
+  }
+
+  @Override
+  public boolean removeByUid(final String uid,
+                             final String recurrenceId) {
+    final var entsVal = getEntsVal();
+
+    if (entsVal == null) {
+      return false;
+    }
+
+    return entsVal.remove(uid, recurrenceId);
+  }
+
   private JSEntries getEntsVal() {
     return getValue(new TypeReference<>() {},
                     JSPropertyNames.entries, false);
@@ -4,6 +4,7 @@
 package org.bedework.jsforj.impl.values;
 
 import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.impl.JSPatchPath;
 import org.bedework.jsforj.impl.JSPropertyNames;
 import org.bedework.jsforj.impl.properties.JSPropertyImpl;
 import org.bedework.jsforj.impl.values.dataTypes.JSLocalDateTimeImpl;
@@ -16,9 +17,10 @@ import org.bedework.util.misc.Util;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -26,9 +28,11 @@ import java.util.TreeSet;
 /**
  * User: mike Date: 10/24/19 Time: 17:18
  *
- * We handle an override by taking a complete copy of the master
- * and updating it using the recurrence-id value and any changes
- * in the object.
+ * We handle an override by taking a copy of the master and
+ * updating it using the recurrence-id value and any changes
+ * in the object. Subtrees are shared with the master until either
+ * side modifies them so later changes to one are not seen in the
+ * other.
  *
  * If there are updates to the override they will be reflected in the
  * copy.
@@ -89,6 +93,11 @@ public class JSOverrideImpl extends JSPatchObjectImpl
 
   @Override
   public void preWrite() {
+    if (master == null) {
+      // Never set up so never changed
+      return;
+    }
+
     // Generate patches.
     overrides.clear();
 
@@ -125,10 +134,15 @@ public class JSOverrideImpl extends JSPatchObjectImpl
     overrides = new JSCalendarObjectImpl(JSTypes.typeOverride,
                                          getNode());
 
-    // First clone the master
-    final var copyNode = ((JSValueImpl)master)
-            .getNode().deepCopy();
+    /* Overlay the master. Only the top level is copied - anything
+       below is shared until it is modified by either side.
+     */
+    final var masterImpl = (JSValueImpl)master;
+    final var copyNode = JsonNodeFactory.instance.objectNode();
+    copyNode.setAll((ObjectNode)masterImpl.getNode());
     setMasterCopy(copyNode);
+    shareNodes();
+    masterImpl.shareNodes();
     removeProperty(JSPropertyNames.recurrenceOverrides);
     removeProperty(JSPropertyNames.recurrenceRules);
     removeProperty(JSPropertyNames.excludedRecurrenceRules);
@@ -212,23 +226,9 @@ public class JSOverrideImpl extends JSPatchObjectImpl
    * @return referenced property or null
    */
   private JSProperty<?> findProperty(final String path) {
-    JsonPointer ptr = JsonPointer.compile("/" + path);
     JSProperty<?> prop = getParentProperty();
 
-    // Get the elements.
-    final LinkedList<String> elements = new LinkedList<>();
-    while (true) {
-      final JsonPointer last = ptr.last();
-      if (last == null) {
-        break;
-      }
-
-      elements.push(last.getMatchingProperty());
-      ptr = ptr.head();
-    }
-
-    while (!elements.isEmpty()) {
-      final var pname = elements.pop();
+    for (final var pname: JSPatchPath.segments(path)) {
       prop = prop.getValue().getProperty(pname);
       if (prop == null) {
         return null;
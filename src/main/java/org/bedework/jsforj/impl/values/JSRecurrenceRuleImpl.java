@@ -11,6 +11,7 @@ import org.bedework.jsforj.model.values.JSRecurrenceRule;
 import org.bedework.jsforj.model.values.dataTypes.JSString;
 import org.bedework.jsforj.model.values.dataTypes.JSUnsignedInteger;
 import org.bedework.jsforj.model.values.collections.JSArray;
+import org.bedework.jsforj.model.values.collections.JSIntArray;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -121,7 +122,7 @@ public class JSRecurrenceRuleImpl extends JSValueImpl
   }
 
   @Override
-  public JSArray<Integer> getByMonthDay(final boolean create) {
+  public JSIntArray<Integer> getByMonthDay(final boolean create) {
     return getValue(new TypeReference<>() {},
                     JSPropertyNames.byMonthDay, create);
   }
@@ -143,7 +144,7 @@ public class JSRecurrenceRuleImpl extends JSValueImpl
   }
 
   @Override
-  public JSArray<Integer> getByYearDay(final boolean create) {
+  public JSIntArray<Integer> getByYearDay(final boolean create) {
     return getValue(new TypeReference<>() {},
                     JSPropertyNames.byYearDay, create);
   }
@@ -154,7 +155,7 @@ public class JSRecurrenceRuleImpl extends JSValueImpl
   }
 
   @Override
-  public JSArray<Integer> getByWeekNo(final boolean create) {
+  public JSIntArray<Integer> getByWeekNo(final boolean create) {
     return getValue(new TypeReference<>() {},
                     JSPropertyNames.byWeekNo, create);
   }
@@ -165,7 +166,7 @@ public class JSRecurrenceRuleImpl extends JSValueImpl
   }
 
   @Override
-  public JSArray<JSUnsignedInteger> getByHour(final boolean create) {
+  public JSIntArray<JSUnsignedInteger> getByHour(final boolean create) {
     return getValue(new TypeReference<>() {},
                     JSPropertyNames.byHour, create);
   }
@@ -176,7 +177,7 @@ public class JSRecurrenceRuleImpl extends JSValueImpl
   }
 
   @Override
-  public JSArray<JSUnsignedInteger> getByMinute(final boolean create) {
+  public JSIntArray<JSUnsignedInteger> getByMinute(final boolean create) {
     return getValue(new TypeReference<>() {},
                     JSPropertyNames.byMinute, create);
   }
@@ -187,7 +188,7 @@ public class JSRecurrenceRuleImpl extends JSValueImpl
   }
 
   @Override
-  public JSArray<JSUnsignedInteger> getBySecond(final boolean create) {
+  public JSIntArray<JSUnsignedInteger> getBySecond(final boolean create) {
     return getValue(new TypeReference<>() {},
                     JSPropertyNames.bySecond, create);
   }
@@ -198,7 +199,7 @@ public class JSRecurrenceRuleImpl extends JSValueImpl
   }
 
   @Override
-  public JSArray<Integer> getBySetPosition(final boolean create) {
+  public JSIntArray<Integer> getBySetPosition(final boolean create) {
     return getValue(new TypeReference<>() {},
                     JSPropertyNames.bySetPosition, create);
   }
@@ -7,23 +7,40 @@ import org.bedework.jsforj.JsforjException;
 import org.bedework.jsforj.impl.JSFactory;
 import org.bedework.jsforj.impl.values.dataTypes.JSUnsignedIntegerImpl;
 import org.bedework.jsforj.model.JSProperty;
+import org.bedework.jsforj.model.JSPropertyCursor;
 import org.bedework.jsforj.model.values.JSValue;
 import org.bedework.jsforj.model.values.dataTypes.JSString;
 import org.bedework.jsforj.model.values.dataTypes.JSUnsignedInteger;
 import org.bedework.util.misc.Util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * User: mike Date: 10/24/19 Time: 10:35
@@ -63,10 +80,82 @@ public abstract class JSValueImpl implements JSValue {
 
   private JSValue owner;
 
+  /* Nodes which belong to this value and those below it while their
+     subtrees are shared with another tree - null if nothing is
+     shared. Any other node is copied before it is modified.
+   */
+  private Set<JsonNode> privateNodes;
+
   private boolean changed;
 
   private boolean overrideGenerated;
 
+  /* Source of modification stamps. Every change takes the next
+     stamp which is set on the changed value and its owners, so a
+     cached encoding is valid if the value has no later stamp.
+   */
+  private final static AtomicLong clock = new AtomicLong();
+
+  // Stamp of last change to this value
+  private long modified;
+
+  private boolean cacheSerialized;
+
+  // Encoding of the whole value
+  private Serialized serialized;
+
+  // Encodings of properties with no wrapper of their own
+  private Map<String, Serialized> serializedFields;
+
+  private final static MethodType copyConstructorType =
+          MethodType.methodType(void.class,
+                                String.class, JsonNode.class);
+
+  private final static MethodType copyType =
+          MethodType.methodType(JSValue.class,
+                                String.class, JsonNode.class);
+
+  /* Constructor for each value class taking the type and node - null
+     if the class has no such constructor. Looked up once per class.
+   */
+  private final static ClassValue<MethodHandle> copyConstructors =
+          new ClassValue<>() {
+            @Override
+            protected MethodHandle computeValue(final Class<?> cl) {
+              try {
+                return MethodHandles.publicLookup()
+                        .findConstructor(cl, copyConstructorType)
+                        .asType(copyType);
+              } catch (final Throwable t) {
+                return null;
+              }
+            }
+          };
+
+  private static class Serialized {
+    final JsonFactory factory;
+    final JsonNode node;
+    final long stamp;
+    final String json;
+
+    Serialized(final JsonFactory factory,
+               final JsonNode node,
+               final long stamp,
+               final String json) {
+      this.factory = factory;
+      this.node = node;
+      this.stamp = stamp;
+      this.json = json;
+    }
+
+    boolean valid(final JsonFactory jf,
+                  final JsonNode nd,
+                  final long lastModified) {
+      return (factory == jf) && (node == nd) &&
+              (stamp >= lastModified);
+    }
+  }
+
   public JSValueImpl(final String type,
                      final JsonNode node) {
     if (node == null) {
@@ -100,10 +189,15 @@ public abstract class JSValueImpl implements JSValue {
     return node;
   }
 
+  /* Only properties which have been built can have been changed so
+     there is no need to build the rest.
+   */
   @Override
   public void preWrite() {
-    for (final var p: getProperties()) {
-      p.getValue().preWrite();
+    for (final var p: new ArrayList<>(childProperties.values())) {
+      if (p != null) {
+        p.getValue().preWrite();
+      }
     }
   }
 
@@ -171,6 +265,113 @@ public abstract class JSValueImpl implements JSValue {
     return false;
   }
 
+  @Override
+  public void setCacheSerialized(final boolean val) {
+    cacheSerialized = val;
+    if (!val) {
+      serialized = null;
+      serializedFields = null;
+    }
+  }
+
+  /**
+   * @return stamp of the latest change to this or any sub-value.
+   */
+  public long lastModified() {
+    return modified;
+  }
+
+  /** Flag this value as changed. The change is stamped on this
+   * value and all its owners.
+   */
+  protected void markChanged() {
+    changed = true;
+
+    final var stamp = clock.incrementAndGet();
+    for (var v = this; v != null; v = (JSValueImpl)v.owner) {
+      v.modified = stamp;
+    }
+  }
+
+  /** Called when a property of a value owned by this one is set or
+   * removed. Values which index their elements by some of their
+   * properties override this.
+   *
+   * @param name of the property - null if all were removed
+   */
+  protected void childPropertyChanged(final String name) {
+  }
+
+  private void propertyChanged(final String name) {
+    if (owner != null) {
+      ((JSValueImpl)owner).childPropertyChanged(name);
+    }
+  }
+
+  /** From now on only the node of this value belongs to it. All
+   * nodes below it are shared - with an override view or with the
+   * master of the view - and are copied before modification.
+   */
+  protected void shareNodes() {
+    privateNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    privateNodes.add(getNode());
+  }
+
+  /** Return the node for modification. Within an override view,
+   * or within a master with views, the node may be shared - if so
+   * it is first replaced by a shallow copy, as are any shared nodes
+   * above it.
+   *
+   * @return node which may be modified
+   */
+  protected JsonNode getWritableNode() {
+    final var nd = getNode();
+
+    JSValueImpl sharer = null;
+    for (var v = this; v != null; v = (JSValueImpl)v.owner) {
+      if (v.privateNodes != null) {
+        sharer = v;
+        break;
+      }
+    }
+
+    if ((sharer == null) || sharer.privateNodes.contains(nd)) {
+      return nd;
+    }
+
+    final JsonNode copy;
+    if (nd.isObject()) {
+      final var obj = JsonNodeFactory.instance.objectNode();
+      obj.setAll((ObjectNode)nd);
+      copy = obj;
+    } else if (nd.isArray()) {
+      copy = JsonNodeFactory.instance.arrayNode()
+                                     .addAll((ArrayNode)nd);
+    } else {
+      // Scalars are replaced rather than modified
+      return nd;
+    }
+
+    sharer.privateNodes.add(copy);
+
+    final var ownerNode = ((JSValueImpl)owner).getWritableNode();
+    if (ownerNode.isObject()) {
+      ((ObjectNode)ownerNode).set(parentProperty.getName(), copy);
+    } else {
+      final var arr = (ArrayNode)ownerNode;
+      for (int i = 0; i < arr.size(); i++) {
+        if (arr.get(i) == nd) {
+          arr.set(i, copy);
+          break;
+        }
+      }
+    }
+
+    node = copy;
+
+    return copy;
+  }
+
   protected void setMasterCopy(final JsonNode copyNode) {
     masterCopy = copyNode;
   }
@@ -208,6 +409,100 @@ public abstract class JSValueImpl implements JSValue {
     return props;
   }
 
+  @Override
+  public JSValue copy() {
+    final var constructor = copyConstructors.get(getClass());
+    if (constructor == null) {
+      return JSValue.super.copy();
+    }
+
+    try {
+      return (JSValue)constructor.invokeExact(getObjectType(),
+                                              getNode().deepCopy());
+    } catch (final Throwable t) {
+      throw new JsforjException("Exception thrown creating JSValue copy");
+    }
+  }
+
+  @Override
+  public JSPropertyCursor getPropertyCursor() {
+    return new PropertyCursor();
+  }
+
+  private class PropertyCursor implements JSPropertyCursor {
+    private final Iterator<Map.Entry<String, JsonNode>> it;
+    private Map.Entry<String, JsonNode> current;
+
+    PropertyCursor() {
+      final var nd = JSValueImpl.this.getNode();
+
+      if (nd.isObject()) {
+        it = nd.fields();
+      } else {
+        it = Collections.emptyIterator();
+      }
+    }
+
+    @Override
+    public boolean next() {
+      if (!it.hasNext()) {
+        current = null;
+        return false;
+      }
+
+      current = it.next();
+      return true;
+    }
+
+    @Override
+    public String getName() {
+      return current().getKey();
+    }
+
+    @Override
+    public JsonNodeType getKind() {
+      return current().getValue().getNodeType();
+    }
+
+    @Override
+    public String getType() {
+      return JSFactory.getPropertyType(getName());
+    }
+
+    @Override
+    public JsonNode getNode() {
+      return current().getValue();
+    }
+
+    @Override
+    public boolean isMaterialized() {
+      return childProperties.get(getName()) != null;
+    }
+
+    @Override
+    public JSProperty<?> getProperty() {
+      return materialize(getName());
+    }
+
+    private Map.Entry<String, JsonNode> current() {
+      if (current == null) {
+        throw new JsforjException("Cursor not on a property");
+      }
+
+      return current;
+    }
+  }
+
+  /** Called to build a property for a cursor. Subclasses which do
+   * extra set up of their properties should override.
+   *
+   * @param name of property
+   * @return the property
+   */
+  protected JSProperty<?> materialize(final String name) {
+    return getProperty(name);
+  }
+
   @Override
   public <T extends JSValue> JSProperty<T> getProperty(
           final TypeReference<T> type,
@@ -345,16 +640,150 @@ public abstract class JSValueImpl implements JSValue {
   @Override
   public void writeValue(final Writer wtr,
                          final ObjectMapper mapper) {
-    preWrite();
+    try (final var gen = mapper.getFactory().createGenerator(wtr)) {
+      if (mapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+        gen.useDefaultPrettyPrinter();
+      }
+      writeValue(gen);
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  @Override
+  public void writeValue(final OutputStream os,
+                         final ObjectMapper mapper) {
+    try (final var gen = mapper.getFactory().createGenerator(os)) {
+      if (mapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+        gen.useDefaultPrettyPrinter();
+      }
+      writeValue(gen);
+    } catch (final JsforjException je) {
+      throw je;
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+  }
+
+  @Override
+  public void writeValue(final JsonGenerator gen) {
     try {
-      mapper.writeValue(wtr, getNode());
+      final var codec = gen.getCodec();
+
+      /* The cached text is only used if it was made by the factory
+         of the generator and the generator has not been given its
+         own escapes.
+       */
+      if (cacheSerialized &&
+              (codec != null) &&
+              !gen.canWriteBinaryNatively() &&
+              (gen.getPrettyPrinter() == null) &&
+              (gen.getCharacterEscapes() ==
+                       codec.getFactory().getCharacterEscapes())) {
+        gen.writeRawValue(getCachedJson(codec.getFactory(), true));
+        return;
+      }
+
+      preWrite();
+      writeNode(gen, getNode());
     } catch (final Throwable t) {
       throw new JsforjException(t);
     }
   }
 
+  /** Emit the node as tokens.
+   *
+   * @param gen to write to
+   * @param nd to write
+   * @throws IOException on write error
+   */
+  public static void writeNode(final JsonGenerator gen,
+                               final JsonNode nd) throws IOException {
+    switch (nd.getNodeType()) {
+      case OBJECT:
+        gen.writeStartObject();
+        final var it = nd.fields();
+        while (it.hasNext()) {
+          final var fld = it.next();
+          gen.writeFieldName(fld.getKey());
+          writeNode(gen, fld.getValue());
+        }
+        gen.writeEndObject();
+        return;
+
+      case ARRAY:
+        gen.writeStartArray(nd.size());
+        for (final var el: nd) {
+          writeNode(gen, el);
+        }
+        gen.writeEndArray();
+        return;
+
+      case STRING:
+        gen.writeString(nd.textValue());
+        return;
+
+      case BOOLEAN:
+        gen.writeBoolean(nd.booleanValue());
+        return;
+
+      case NULL:
+      case MISSING:
+        gen.writeNull();
+        return;
+
+      case NUMBER:
+        switch (nd.numberType()) {
+          case INT:
+            gen.writeNumber(nd.intValue());
+            return;
+          case LONG:
+            gen.writeNumber(nd.longValue());
+            return;
+          case BIG_INTEGER:
+            gen.writeNumber(nd.bigIntegerValue());
+            return;
+          case FLOAT:
+            gen.writeNumber(nd.floatValue());
+            return;
+          case BIG_DECIMAL:
+            gen.writeNumber(nd.decimalValue());
+            return;
+          default:
+            gen.writeNumber(nd.doubleValue());
+            return;
+        }
+
+      case BINARY:
+        gen.writeBinary(nd.binaryValue());
+        return;
+
+      default:
+        // POJO - needs the codec
+        gen.writeTree(nd);
+    }
+  }
+
+  @Override
+  public byte[] writeValueAsBytes(final ObjectMapper mapper) {
+    preWrite();
+    try {
+      return mapper.writeValueAsBytes(getNode());
+    } catch (final JsonProcessingException e) {
+      throw new JsforjException(e);
+    }
+  }
+
   @Override
   public String writeValueAsString(final ObjectMapper mapper) {
+    if (cacheSerialized &&
+            !mapper.getFactory().canHandleBinaryNatively() &&
+            !mapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+      return getCachedJson(mapper.getFactory(), true);
+    }
+
     preWrite();
     try {
       return mapper.writeValueAsString(getNode());
@@ -389,19 +818,21 @@ public abstract class JSValueImpl implements JSValue {
   @Override
   public void removeProperty(final String name) {
     assertObject("removeProperty");
-    changed = true;
+    markChanged();
 
-    ((ObjectNode)getNode()).remove(name);
+    ((ObjectNode)getWritableNode()).remove(name);
     childProperties.put(name, null);
+    propertyChanged(name);
   }
 
   @Override
   public void clear() {
     assertObject("clear");
-    changed = true;
+    markChanged();
 
-    ((ObjectNode)getNode()).removeAll();
+    ((ObjectNode)getWritableNode()).removeAll();
     childProperties.clear();
+    propertyChanged(null);
   }
 
   @Override
@@ -480,6 +911,87 @@ public abstract class JSValueImpl implements JSValue {
     return this.getNode().equals(that.getNode());
   }
 
+  /* Return the cached encoding if it was made by the factory and
+     nothing in this subtree has changed since. Otherwise re-encode,
+     reusing the cached encodings of unchanged sub-values.
+   */
+  private String getCachedJson(final JsonFactory jf,
+                               final boolean doPreWrite) {
+    final var nd = getNode();
+    final var mod = lastModified();
+
+    if ((serialized != null) && serialized.valid(jf, nd, mod)) {
+      return serialized.json;
+    }
+
+    if (doPreWrite) {
+      preWrite();
+    }
+
+    final var sw = new StringWriter();
+
+    try (final var gen = jf.createGenerator(sw)) {
+      if (!nd.isObject()) {
+        writeNode(gen, nd);
+      } else {
+        if (serializedFields == null) {
+          serializedFields = new HashMap<>();
+        }
+
+        gen.writeStartObject();
+        final var it = nd.fields();
+        while (it.hasNext()) {
+          final var fld = it.next();
+          gen.writeFieldName(fld.getKey());
+          gen.writeRawValue(getCachedJson(jf,
+                                          fld.getKey(),
+                                          fld.getValue()));
+        }
+        gen.writeEndObject();
+      }
+    } catch (final Throwable t) {
+      throw new JsforjException(t);
+    }
+
+    serialized = new Serialized(jf, nd, mod, sw.toString());
+
+    return serialized.json;
+  }
+
+  private String getCachedJson(final JsonFactory jf,
+                               final String name,
+                               final JsonNode nd) throws IOException {
+    final var prop = childProperties.get(name);
+    long mod = 0;
+
+    if (prop != null) {
+      final var val = (JSValueImpl)prop.getValue();
+
+      if (val.getNode() == nd) {
+        return val.getCachedJson(jf, false);
+      }
+
+      // e.g. an override whose node is the patch object
+      mod = val.lastModified();
+    }
+
+    final var cached = serializedFields.get(name);
+    if ((cached != null) && cached.valid(jf, nd, mod)) {
+      return cached.json;
+    }
+
+    final var sw = new StringWriter();
+
+    try (final var gen = jf.createGenerator(sw)) {
+      writeNode(gen, nd);
+    }
+
+    final var json = sw.toString();
+    serializedFields.put(name, new Serialized(jf, nd, mod, json));
+
+    return json;
+  }
+
   protected JSProperty<?> makeProperty(final String name,
                                        final JsonNode node) {
     return factory.makeProperty(name, node);
@@ -557,7 +1069,7 @@ public abstract class JSValueImpl implements JSValue {
 
   private <ValType extends JSValue> JSProperty<ValType> addProperty(
           final JSProperty<ValType> val) {
-    changed = true;
+    markChanged();
     assertObject("addProperty");
 
     final var name = val.getName();
@@ -566,10 +1078,11 @@ public abstract class JSValueImpl implements JSValue {
     }
     final var value = (JSValueImpl)val.getValue();
     value.setOwner(this);
-    value.changed = true;
+    value.markChanged();
     childProperties.put(name, val);
 
-    ((ObjectNode)getNode()).set(name, value.getNode());
+    ((ObjectNode)getWritableNode()).set(name, value.getNode());
+    propertyChanged(name);
 
     return val;
   }
@@ -581,12 +1094,12 @@ public abstract class JSValueImpl implements JSValue {
 
     final var name = val.getName();
 
-    final var theNode = (ObjectNode)getNode();
+    final var theNode = (ObjectNode)getWritableNode();
     if (theNode.get(name) != null) {
       theNode.remove(name);
     }
 
-    ((JSValueImpl)val.getValue()).changed = true;
+    ((JSValueImpl)val.getValue()).markChanged();
 
     final var newValue = (JSValueImpl)newval.getValue();
     theNode.set(name, newValue.getNode());
@@ -594,6 +1107,7 @@ public abstract class JSValueImpl implements JSValue {
     // Replace value in property value
     final var value = (JSValueImpl)val.getValue();
     value.node = newValue.getNode();
+    propertyChanged(name);
 
     return (JSProperty<ValType>)val;
   }
@@ -12,13 +12,84 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * User: mike Date: 10/25/19 Time: 12:45
  */
 public abstract class JSArrayImpl<T extends JSValue> extends JSValueImpl
         implements JSArray<T> {
+  /* Position of each element by key for indexed arrays. Kept in step
+     by add, set, remove and clear, rebuilt after any other change. Changes
+     within elements leave it alone unless they set or remove one of
+     the keyProperties - or the key is the whole element.
+   */
+  private Index index;
+
+  // Count of changes made by add, set, remove and clear
+  private int structure;
+
+  /* Wrapped elements by position so each element has a single
+     wrapper. An entry is used only if it still wraps the node at its
+     position.
+   */
+  private List<T> wrappers;
+
+  private static class Index {
+    JsonNode node;
+    int structure;
+    long stamp;
+
+    // First position of each key
+    final Map<Object, Integer> positions;
+
+    // Number of elements whose key is held by an earlier element
+    int duplicates;
+
+    Index(final JsonNode node,
+          final int structure,
+          final long stamp,
+          final Map<Object, Integer> positions,
+          final int duplicates) {
+      this.node = node;
+      this.structure = structure;
+      this.stamp = stamp;
+      this.positions = positions;
+      this.duplicates = duplicates;
+    }
+
+    void add(final Object key,
+             final int pos) {
+      if (positions.putIfAbsent(key, pos) != null) {
+        duplicates++;
+      }
+    }
+
+    /* Remove the element at pos. False if the index can no longer
+       be kept in step - the element was the first of several with
+       its key and finding the next would mean a scan.
+     */
+    boolean remove(final Object key,
+                   final int pos) {
+      final var first = positions.get(key);
+      if ((first == null) || (first != pos)) {
+        duplicates--;
+        return true;
+      }
+
+      if (duplicates > 0) {
+        return false;
+      }
+
+      positions.remove(key);
+      return true;
+    }
+  }
+
   public JSArrayImpl(final String type,
                      final JsonNode node) {
     super(type, node);
@@ -38,6 +109,44 @@ public abstract class JSArrayImpl<T extends JSValue> extends JSValueImpl
    */
   protected abstract T convertToT(JsonNode node);
 
+  /** Indexed arrays find elements by the key returned by
+   * indexKey rather than by comparing every element.
+   *
+   * @return true if this array is indexed
+   */
+  protected boolean isIndexed() {
+    return false;
+  }
+
+  /** Elements with equal keys are taken to be the same element.
+   *
+   * @param element json for the element
+   * @return key for the index - called only if isIndexed()
+   */
+  protected Object indexKey(final JsonNode element) {
+    return element;
+  }
+
+  /** The index is kept over changes within the elements unless they
+   * set or remove one of these properties. Changes made directly to
+   * the json are not seen.
+   *
+   * @return names of the element properties making up the key - null
+   *         if the key is the whole element
+   */
+  protected Set<String> keyProperties() {
+    return null;
+  }
+
+  @Override
+  protected void childPropertyChanged(final String name) {
+    final var keyProperties = keyProperties();
+    if ((keyProperties != null) &&
+            ((name == null) || keyProperties.contains(name))) {
+      index = null;
+    }
+  }
+
   @Override
   public void preWrite() {
     for (final var v: get()) {
@@ -56,10 +165,11 @@ public abstract class JSArrayImpl<T extends JSValue> extends JSValueImpl
   public List<T> get() {
     assertArray("get");
 
-    final var res = new ArrayList<T>(getNode().size());
+    final var node = getNode();
+    final var res = new ArrayList<T>(node.size());
 
-    for (final var it = getNode().elements(); it.hasNext(); ) {
-      res.add(convertToT(it.next()));
+    for (int i = 0; i < node.size(); i++) {
+      res.add(wrap(node, i));
     }
 
     return res;
@@ -78,17 +188,100 @@ public abstract class JSArrayImpl<T extends JSValue> extends JSValueImpl
        list
      */
 
-    final var node = (ArrayNode)getNode();
-    return convertToT(node.get(index));
+    return wrap(getNode(), index);
+  }
+
+  @Override
+  public boolean contains(final T val) {
+    return indexOf(val) >= 0;
+  }
+
+  @Override
+  public int indexOf(final T val) {
+    assertArray("indexOf");
+
+    final var el = convertToElement(val);
+
+    if (isIndexed()) {
+      return indexOfKey(indexKey(el));
+    }
+
+    final var node = getNode();
+    for (int i = 0; i < node.size(); i++) {
+      if (node.get(i).equals(el)) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   *
+   * @param key as returned by indexKey
+   * @return position of first element with that key or -1
+   */
+  protected int indexOfKey(final Object key) {
+    final var pos = getIndex().positions.get(key);
+    if (pos == null) {
+      return -1;
+    }
+
+    return pos;
   }
 
   @Override
   public void add(final T val) {
     assertArray("add");
 
-    final var node = (ArrayNode)getNode();
+    final var v = adopt(val);
+    final var idx = currentIndex();
+    final var node = (ArrayNode)getWritableNode();
+    final var el = convertToElement(v);
+
+    node.add(el);
+    markChanged();
+    structure++;
 
-    node.add(convertToElement(val));
+    if (idx != null) {
+      idx.add(indexKey(el), node.size() - 1);
+      updated(idx, node);
+    }
+
+    if ((wrappers != null) && (wrappers.size() == node.size() - 1)) {
+      wrappers.add(owned(v));
+    }
+  }
+
+  @Override
+  public void set(final int index,
+                  final T val) {
+    assertArray("set");
+
+    if ((index < 0) || (index >= getNode().size())) {
+      throw new JsforjException("Index " + index +
+                                         " out of bounds for " + getType());
+    }
+
+    final var v = adopt(val);
+    final var idx = currentIndex();
+    final var node = (ArrayNode)getWritableNode();
+    final var el = convertToElement(v);
+    final var sameKey = (idx != null) &&
+            Objects.equals(indexKey(node.get(index)), indexKey(el));
+
+    node.set(index, el);
+    markChanged();
+    structure++;
+
+    if (sameKey) {
+      // Positions are unchanged
+      updated(idx, node);
+    }
+
+    if ((wrappers != null) && (index < wrappers.size())) {
+      wrappers.set(index, owned(v));
+    }
   }
 
   @Override
@@ -100,32 +293,153 @@ public abstract class JSArrayImpl<T extends JSValue> extends JSValueImpl
                                          " out of bounds for " + getType());
     }
 
-    final var node = (ArrayNode)getNode();
+    final var idx = currentIndex();
+    final var node = (ArrayNode)getWritableNode();
+    final var key = (idx == null) ? null : indexKey(node.get(index));
 
     node.remove(index);
+    markChanged();
+    structure++;
+
+    if ((idx != null) && idx.remove(key, index)) {
+      // Later elements move down one
+      for (final var ent: idx.positions.entrySet()) {
+        if (ent.getValue() > index) {
+          ent.setValue(ent.getValue() - 1);
+        }
+      }
+
+      updated(idx, node);
+    }
+
+    if ((wrappers != null) && (index < wrappers.size())) {
+      wrappers.remove(index);
+    }
   }
 
   @Override
   public boolean remove(final T val) {
     assertArray("remove");
 
-    final var node = (ArrayNode)getNode();
-    for (int i = 0; i <= node.size(); i++) {
-      final var elval = get(i);
-      if (elval.equals(val)) {
-        remove(i);
-        return true;
-      }
+    final int i = indexOf(val);
+    if (i < 0) {
+      return false;
     }
 
-    return false;
+    remove(i);
+    return true;
   }
 
   @Override
   public void clear() {
     assertArray("clear");
 
-    final var node = (ArrayNode)getNode();
+    final var idx = currentIndex();
+    final var node = (ArrayNode)getWritableNode();
     node.removeAll();
+    markChanged();
+    structure++;
+
+    if (idx != null) {
+      idx.positions.clear();
+      idx.duplicates = 0;
+      updated(idx, node);
+    }
+
+    wrappers = null;
+  }
+
+  /* The index if it matches the current state - else null */
+  private Index currentIndex() {
+    final var idx = index;
+    if ((idx == null) ||
+            (idx.node != getNode()) || (idx.structure != structure)) {
+      return null;
+    }
+
+    if ((keyProperties() == null) && (idx.stamp != lastModified())) {
+      // Any change to an element may have changed its key
+      return null;
+    }
+
+    return idx;
+  }
+
+  /* The index was kept in step with a change to the node */
+  private void updated(final Index idx,
+                       final JsonNode node) {
+    idx.node = node;
+    idx.structure = structure;
+    idx.stamp = lastModified();
+  }
+
+  private Index getIndex() {
+    var idx = currentIndex();
+
+    if (idx == null) {
+      final var node = getNode();
+      idx = new Index(node, structure, lastModified(),
+                      new HashMap<>(), 0);
+
+      for (int i = 0; i < node.size(); i++) {
+        idx.add(indexKey(node.get(i)), i);
+      }
+
+      index = idx;
+    }
+
+    return idx;
+  }
+
+  private T wrap(final JsonNode node,
+                 final int index) {
+    final var el = node.get(index);
+
+    if (wrappers == null) {
+      wrappers = new ArrayList<>(node.size());
+    }
+
+    // Keep aligned with the node - entries are checked on use
+    while (wrappers.size() < node.size()) {
+      wrappers.add(null);
+    }
+
+    if (wrappers.size() > node.size()) {
+      wrappers.subList(node.size(), wrappers.size()).clear();
+    }
+
+    var res = wrappers.get(index);
+    if ((res == null) || (res.getNode() != el)) {
+      res = owned(convertToT(el));
+      wrappers.set(index, res);
+    }
+
+    return res;
+  }
+
+  /* A value which already belongs to something else is copied so
+     that the two do not share nodes and each owner sees only its own
+     changes.
+   */
+  @SuppressWarnings("unchecked")
+  private T adopt(final T val) {
+    final var owner = ((JSValueImpl)val).getOwner();
+    if ((owner == null) || (owner == this)) {
+      return val;
+    }
+
+    return (T)val.copy();
+  }
+
+  /* Elements are owned by the array so that changes made through
+     them are seen by the array.
+   */
+  private T owned(final T val) {
+    final var v = (JSValueImpl)val;
+    if (v.getOwner() == null) {
+      v.setOwner(this);
+    }
+
+    return val;
   }
 }
@@ -4,6 +4,7 @@
 package org.bedework.jsforj.impl.values.collections;
 
 import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.impl.JSPropertyNames;
 import org.bedework.jsforj.impl.values.JSCalendarObjectImpl;
 import org.bedework.jsforj.model.JSCalendarObject;
 import org.bedework.jsforj.model.values.collections.JSEntries;
@@ -11,16 +12,86 @@ import org.bedework.jsforj.model.values.collections.JSEntries;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.util.Set;
+
 /**
  * User: mike Date: 10/25/19 Time: 12:45
  */
 public class JSEntriesImpl extends JSArrayImpl<JSCalendarObject>
         implements JSEntries {
+  private static final Set<String> keyProperties =
+          Set.of(JSPropertyNames.uid, JSPropertyNames.recurrenceId);
+
   public JSEntriesImpl(final String type,
                        final JsonNode node) {
     super(type, node);
   }
 
+  /**
+   *
+   * @param uid of entry
+   * @param recurrenceId of entry - null for none
+   * @return key for the entry in the index
+   */
+  public static String key(final String uid,
+                           final String recurrenceId) {
+    if (recurrenceId == null) {
+      return uid;
+    }
+
+    return uid + "\t" + recurrenceId;
+  }
+
+  @Override
+  public JSCalendarObject find(final String uid,
+                               final String recurrenceId) {
+    final int i = indexOfKey(key(uid, recurrenceId));
+    if (i < 0) {
+      return null;
+    }
+
+    return get(i);
+  }
+
+  @Override
+  public void replace(final JSCalendarObject val) {
+    final int i = indexOf(val);
+    if (i < 0) {
+      add(val);
+    } else {
+      set(i, val);
+    }
+  }
+
+  @Override
+  public boolean remove(final String uid,
+                        final String recurrenceId) {
+    final int i = indexOfKey(key(uid, recurrenceId));
+    if (i < 0) {
+      return false;
+    }
+
+    remove(i);
+    return true;
+  }
+
+  /* Entries are indexed by uid and recurrence id */
+  @Override
+  protected boolean isIndexed() {
+    return true;
+  }
+
+  @Override
+  protected Object indexKey(final JsonNode element) {
+    return key(element.path(JSPropertyNames.uid).asText(null),
+               element.path(JSPropertyNames.recurrenceId).asText(null));
+  }
+
+  @Override
+  protected Set<String> keyProperties() {
+    return keyProperties;
+  }
+
   @Override
   protected JsonNode convertToElement(final JSCalendarObject val) {
     return ((JSCalendarObjectImpl)val).getNode();
@@ -13,6 +13,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -21,6 +22,25 @@ import java.util.List;
  */
 public abstract class JSListImpl<T> extends JSValueImpl
         implements JSList<T> {
+  /* The field names in order so that indexed access doesn't walk
+     the node. Rebuilt when the node or its change stamp differ.
+   */
+  private Keys keys;
+
+  private static class Keys {
+    final JsonNode node;
+    final long stamp;
+    final String[] names;
+
+    Keys(final JsonNode node,
+         final long stamp,
+         final String[] names) {
+      this.node = node;
+      this.stamp = stamp;
+      this.names = names;
+    }
+  }
+
   public JSListImpl(final String type,
                     final JsonNode node) {
     super(type, node);
@@ -64,11 +84,11 @@ public abstract class JSListImpl<T> extends JSValueImpl
   public List<T> get() {
     assertObject("get");
 
-    final var res = new ArrayList<T>(getNode().size());
-    final var node = (ObjectNode)getNode();
+    final var names = getKeys();
+    final var res = new ArrayList<T>(names.length);
 
-    for (final var it = node.fieldNames(); it.hasNext(); ) {
-      res.add(convertToT(it.next()));
+    for (final var name: names) {
+      res.add(convertToT(name));
     }
 
     return Collections.unmodifiableList(res);
@@ -78,24 +98,35 @@ public abstract class JSListImpl<T> extends JSValueImpl
   public T get(final int index) {
     assertObject("get(i)");
 
-    if ((index < 0) || (index >= getNode().size())) {
+    final var names = getKeys();
+
+    if ((index < 0) || (index >= names.length)) {
       throw new JsforjException("Index " + index +
               " out of bounds for " + getType());
     }
 
-    /* Jackson apparently doesn't expose the field names as a
-       list
-     */
+    return convertToT(names[index]);
+  }
+
+  @Override
+  public boolean contains(final T val) {
+    assertObject("contains");
 
-    final var node = (ObjectNode)getNode();
-    final var it = node.fieldNames();
+    return getNode().has(fieldName(val));
+  }
 
-    String fld = null;
-    for (int i = 0; i <= index; i++) {
-      fld = it.next();
+  @Override
+  public boolean containsAll(final Collection<? extends T> vals) {
+    assertObject("containsAll");
+
+    final var node = getNode();
+    for (final var val: vals) {
+      if (!node.has(fieldName(val))) {
+        return false;
+      }
     }
 
-    return convertToT(fld);
+    return true;
   }
 
   @Override
@@ -103,13 +134,64 @@ public abstract class JSListImpl<T> extends JSValueImpl
     assertObject("add");
 
     store(val);
+    markChanged();
+  }
+
+  @Override
+  public void addAll(final Collection<? extends T> vals) {
+    assertObject("addAll");
+
+    if (vals.isEmpty()) {
+      return;
+    }
+
+    for (final var val: vals) {
+      store(val);
+    }
+    markChanged();
   }
 
   @Override
   public void remove(final T val) {
     assertObject("remove");
 
-    final var node = (ObjectNode)getNode();
+    final var node = (ObjectNode)getWritableNode();
     node.remove(fieldName(val));
+    markChanged();
+  }
+
+  @Override
+  public void removeAll(final Collection<? extends T> vals) {
+    assertObject("removeAll");
+
+    if (vals.isEmpty()) {
+      return;
+    }
+
+    final var node = (ObjectNode)getWritableNode();
+    for (final var val: vals) {
+      node.remove(fieldName(val));
+    }
+    markChanged();
+  }
+
+  private String[] getKeys() {
+    final var nd = getNode();
+    final var stamp = lastModified();
+    var k = keys;
+
+    if ((k == null) || (k.node != nd) || (k.stamp != stamp)) {
+      final var names = new String[nd.size()];
+      int i = 0;
+      for (final var it = nd.fieldNames(); it.hasNext(); ) {
+        names[i] = it.next();
+        i++;
+      }
+
+      k = new Keys(nd, stamp, names);
+      keys = k;
+    }
+
+    return k.names;
   }
 }
@@ -110,15 +110,27 @@ public abstract class JSMapImpl<K, E extends JSValue>
     return postCreate((JSProperty<E>)getProperty(name));
   }
 
+  // Properties of a map are all made with the element type
+  @SuppressWarnings("unchecked")
+  @Override
+  protected JSProperty<?> materialize(final String name) {
+    final var p = getProperty(name);
+    if (p == null) {
+      return null;
+    }
+
+    return postCreate((JSProperty<E>)p);
+  }
+
   @Override
   public JSProperty<E> put(final K key, final E val) {
     assertObject("add");
 
     final String name = convertKey(key);
     return postCreate(
-            (JSProperty<E>)getFactory()
+            setProperty((JSProperty<E>)getFactory()
                     .makeProperty(name,
-                                  val));
+                                  val)));
   }
 
   @Override
@@ -0,0 +1,179 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl.values.collections;
+
+import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.model.values.JSValue;
+import org.bedework.jsforj.model.values.collections.JSIntArray;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/** Primitive access to arrays of integer values. The ints are
+ * cached with the node and change stamp they were read from.
+ *
+ * <p>The static methods are also used by the recurrence expansion,
+ * which reads the json of a rule directly, so both build masks the
+ * same way.</p>
+ */
+public abstract class JSNumberArrayImpl<T extends JSValue>
+        extends JSArrayImpl<T> implements JSIntArray<T> {
+  private Ints ints;
+
+  private static class Ints {
+    final JsonNode node;
+    final long stamp;
+    final int[] vals;
+
+    // Most recent mask - null until one is asked for
+    Mask mask;
+
+    Ints(final JsonNode node,
+         final long stamp,
+         final int[] vals) {
+      this.node = node;
+      this.stamp = stamp;
+      this.vals = vals;
+    }
+  }
+
+  private static class Mask {
+    final int offset;
+    final long bits;
+
+    Mask(final int offset,
+         final long bits) {
+      this.offset = offset;
+      this.bits = bits;
+    }
+  }
+
+  public JSNumberArrayImpl(final String type,
+                           final JsonNode node) {
+    super(type, node);
+  }
+
+  @Override
+  public int[] getInts() {
+    return getCached().vals.clone();
+  }
+
+  @Override
+  public IntStream intStream() {
+    return Arrays.stream(getCached().vals);
+  }
+
+  @Override
+  public boolean containsInt(final int val) {
+    for (final var v: getCached().vals) {
+      if (v == val) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public long getMask(final int offset) {
+    final var c = getCached();
+    var m = c.mask;
+
+    if ((m == null) || (m.offset != offset)) {
+      // Benign race - the holder is immutable
+      m = new Mask(offset, mask(c.vals, offset));
+      c.mask = m;
+    }
+
+    return m.bits;
+  }
+
+  @Override
+  public BitSet getBitSet(final int offset) {
+    return bitSet(getCached().vals, offset);
+  }
+
+  /**
+   *
+   * @param nd json array of numbers - may be null
+   * @return the values in order
+   */
+  public static int[] ints(final JsonNode nd) {
+    if (nd == null) {
+      return new int[0];
+    }
+
+    final var vals = new int[nd.size()];
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] = nd.get(i).asInt();
+    }
+
+    return vals;
+  }
+
+  /**
+   *
+   * @param vals the values
+   * @param offset added to each value
+   * @return bit (value + offset) set for each value
+   * throws JsforjException if any value + offset is outside 0 to 63
+   */
+  public static long mask(final int[] vals,
+                          final int offset) {
+    long res = 0;
+
+    for (final var v: vals) {
+      final int bit = v + offset;
+      if ((bit < 0) || (bit > 63)) {
+        throw new JsforjException("Value " + v +
+                                          " out of range for mask" +
+                                          " with offset " + offset);
+      }
+      res |= 1L << bit;
+    }
+
+    return res;
+  }
+
+  /**
+   *
+   * @param vals the values
+   * @param offset added to each value
+   * @return set with bit (value + offset) set for each value
+   * throws JsforjException if any value + offset is negative
+   */
+  public static BitSet bitSet(final int[] vals,
+                              final int offset) {
+    final var res = new BitSet();
+
+    for (final var v: vals) {
+      if (v + offset < 0) {
+        throw new JsforjException("Value " + v +
+                                          " out of range for offset " +
+                                          offset);
+      }
+      res.set(v + offset);
+    }
+
+    return res;
+  }
+
+  private Ints getCached() {
+    assertArray("ints");
+
+    final var nd = getNode();
+    final var stamp = lastModified();
+    var c = ints;
+
+    if ((c == null) || (c.node != nd) || (c.stamp != stamp)) {
+      c = new Ints(nd, stamp, ints(nd));
+      ints = c;
+    }
+
+    return c;
+  }
+}
@@ -4,17 +4,28 @@
 package org.bedework.jsforj.impl.values.collections;
 
 import org.bedework.jsforj.JsforjException;
+import org.bedework.jsforj.impl.JSTemporal;
 import org.bedework.jsforj.impl.values.JSValueImpl;
 import org.bedework.jsforj.impl.values.dataTypes.JSLocalDateTimeImpl;
 import org.bedework.jsforj.model.JSCalendarObject;
 import org.bedework.jsforj.model.JSProperty;
 import org.bedework.jsforj.model.JSTypes;
 import org.bedework.jsforj.model.values.JSOverride;
+import org.bedework.jsforj.model.values.JSValue;
 import org.bedework.jsforj.model.values.collections.JSRecurrenceOverrides;
 import org.bedework.jsforj.model.values.dataTypes.JSLocalDateTime;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
 /**
  * User: mike Date: 10/25/19 Time: 12:45
  */
@@ -23,18 +34,27 @@ public class JSRecurrenceOverridesImpl
         implements JSRecurrenceOverrides {
   private JSCalendarObject master;
 
+  /* Field name of each override by recurrence id. Kept in step by
+     setProperty, removeProperty and clear, through which all changes
+     to the keys pass. Unlike the stamp checked snapshots of arrays
+     and lists this is not invalidated by lastModified() - that is
+     stamped by every change within an override, none of which can
+     change the keys. It is rebuilt only if the node is replaced or
+     the number of fields indexed no longer matches.
+
+     Field names which parse to the same recurrence id, e.g.
+     "...T09:00:00" and "...T09:00:00.000", are counted in indexed
+     but only the first is held.
+   */
+  private final TreeMap<LocalDateTime, String> keys = new TreeMap<>();
+  private JsonNode keysNode;
+  private int indexed;
+
   public JSRecurrenceOverridesImpl(final String type,
                                    final JsonNode node) {
     super(type, node);
   }
 
-  @Override
-  public void preWrite() {
-    for (final var p: get()) {
-      p.getValue().preWrite();
-    }
-  }
-
   @Override
   public void setMaster(final JSCalendarObject val) {
     master = val;
@@ -66,6 +86,93 @@ public class JSRecurrenceOverridesImpl
     return new JSLocalDateTimeImpl(fieldName);
   }
 
+  @Override
+  public NavigableSet<LocalDateTime> navigableKeys() {
+    assertObject("navigableKeys");
+
+    return Collections.unmodifiableNavigableSet(
+            new TreeSet<>(getKeyIndex().navigableKeySet()));
+  }
+
+  @Override
+  public NavigableMap<LocalDateTime, JSOverride> subMap(
+          final LocalDateTime from,
+          final LocalDateTime to) {
+    assertObject("subMap");
+
+    final var res = new TreeMap<LocalDateTime, JSOverride>();
+
+    for (final var ent: getKeyIndex().subMap(from, true,
+                                             to, false).entrySet()) {
+      res.put(ent.getKey(), override(ent.getValue()));
+    }
+
+    return res;
+  }
+
+  @Override
+  public Map.Entry<LocalDateTime, JSOverride> ceilingEntry(
+          final LocalDateTime val) {
+    assertObject("ceilingEntry");
+
+    return entry(getKeyIndex().ceilingEntry(val));
+  }
+
+  @Override
+  public Map.Entry<LocalDateTime, JSOverride> floorEntry(
+          final LocalDateTime val) {
+    assertObject("floorEntry");
+
+    return entry(getKeyIndex().floorEntry(val));
+  }
+
+  @Override
+  public <ValType extends JSValue> JSProperty<ValType> setProperty(
+          final JSProperty<ValType> val) {
+    final var name = val.getName();
+    final var current = keysCurrent() && !getNode().has(name);
+    final var res = super.setProperty(val);
+
+    if (current) {
+      keys.putIfAbsent(JSTemporal.parseLocalDateTime(name), name);
+      indexed++;
+      keysNode = getNode();
+    }
+
+    return res;
+  }
+
+  @Override
+  public void removeProperty(final String name) {
+    final var current = keysCurrent() && getNode().has(name);
+    super.removeProperty(name);
+
+    if (!current) {
+      return;
+    }
+
+    final var rid = JSTemporal.parseLocalDateTime(name);
+    indexed--;
+    keysNode = getNode();
+
+    if (name.equals(keys.get(rid))) {
+      keys.remove(rid);
+
+      if (keys.size() != indexed) {
+        // Another field may have the same recurrence id
+        keysNode = null;
+      }
+    }
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    keys.clear();
+    indexed = 0;
+    keysNode = getNode();
+  }
+
   protected JSProperty<JSOverride> postCreate(
           final JSProperty<JSOverride> entry) {
     final var ovval = entry.getValue();
@@ -79,4 +186,40 @@ public class JSRecurrenceOverridesImpl
 
     return entry;
   }
+
+  private boolean keysCurrent() {
+    final var node = getNode();
+    return (keysNode == node) && (indexed == node.size());
+  }
+
+  private TreeMap<LocalDateTime, String> getKeyIndex() {
+    if (!keysCurrent()) {
+      final var node = getNode();
+      keys.clear();
+
+      for (final var it = node.fieldNames(); it.hasNext(); ) {
+        final var name = it.next();
+        keys.putIfAbsent(JSTemporal.parseLocalDateTime(name), name);
+      }
+
+      indexed = node.size();
+      keysNode = node;
+    }
+
+    return keys;
+  }
+
+  private JSOverride override(final String name) {
+    return (JSOverride)materialize(name).getValue();
+  }
+
+  private Map.Entry<LocalDateTime, JSOverride> entry(
+          final Map.Entry<LocalDateTime, String> ent) {
+    if (ent == null) {
+      return null;
+    }
+
+    return new AbstractMap.SimpleImmutableEntry<>(
+            ent.getKey(), override(ent.getValue()));
+  }
 }
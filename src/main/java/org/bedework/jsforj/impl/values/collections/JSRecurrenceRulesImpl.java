@@ -23,6 +23,12 @@ public class JSRecurrenceRulesImpl
     super(type, node);
   }
 
+  /* Rules are indexed by their structure - the default key */
+  @Override
+  protected boolean isIndexed() {
+    return true;
+  }
+
   @Override
   protected JsonNode convertToElement(final JSRecurrenceRule val) {
     return ((JSRecurrenceRuleImpl)val).getNode();
@@ -17,7 +17,7 @@ public class JSStringListImpl extends JSListImpl<String> {
 
   @Override
   protected void store(final String val) {
-    ((ObjectNode)getNode()).put(val, true);
+    ((ObjectNode)getWritableNode()).put(val, true);
   }
 
   @Override
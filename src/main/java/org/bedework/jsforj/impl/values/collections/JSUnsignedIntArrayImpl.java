@@ -4,7 +4,6 @@
 package org.bedework.jsforj.impl.values.collections;
 
 import org.bedework.jsforj.JsforjException;
-import org.bedework.jsforj.impl.values.dataTypes.JSIntegerImpl;
 import org.bedework.jsforj.model.JSTypes;
 import org.bedework.jsforj.model.values.dataTypes.JSUnsignedInteger;
 
@@ -15,7 +14,7 @@ import com.fasterxml.jackson.databind.node.IntNode;
  * User: mike Date: 5/11/20 Time: 00:46
  */
 public class JSUnsignedIntArrayImpl
-        extends JSArrayImpl<JSUnsignedInteger> {
+        extends JSNumberArrayImpl<JSUnsignedInteger> {
   public JSUnsignedIntArrayImpl(final String type,
                                 final JsonNode node) {
     super(type, node);
@@ -23,7 +22,7 @@ public class JSUnsignedIntArrayImpl
 
   @Override
   protected JsonNode convertToElement(final JSUnsignedInteger val) {
-    return ((JSIntegerImpl)val).getNode();
+    return val.getNode();
   }
 
   @Override
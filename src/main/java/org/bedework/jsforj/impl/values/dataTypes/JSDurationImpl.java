@@ -3,6 +3,7 @@
 */
 package org.bedework.jsforj.impl.values.dataTypes;
 
+import org.bedework.jsforj.impl.JSTemporal;
 import org.bedework.jsforj.impl.values.JSValueImpl;
 import org.bedework.jsforj.model.JSTypes;
 import org.bedework.jsforj.model.values.dataTypes.JSDuration;
@@ -10,21 +11,54 @@ import org.bedework.jsforj.model.values.dataTypes.JSDuration;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 
+import java.time.Duration;
+import java.time.Period;
+
 /** Use a string node tohold the value
  *
  * User: mike Date: 10/25/19 Time: 12:45
  */
 public class JSDurationImpl extends JSValueImpl
         implements JSDuration {
+  private JSParsed<JSTemporal.DurationValue> parsed;
+
   public JSDurationImpl(final String value) {
     super(JSTypes.typeDuration, new TextNode(value));
 
     // validate it
-    // ...
+    getParsed();
   }
 
   public JSDurationImpl(final String type,
                         final JsonNode node) {
     super(type, node);
   }
+
+  @Override
+  public Duration getDuration() {
+    return getParsed().getDuration();
+  }
+
+  @Override
+  public Period getPeriod() {
+    return getParsed().getPeriod();
+  }
+
+  @Override
+  public Duration getTime() {
+    return getParsed().getTime();
+  }
+
+  private JSTemporal.DurationValue getParsed() {
+    final var nd = getNode();
+    var p = parsed;
+
+    if ((p == null) || (p.node != nd)) {
+      p = new JSParsed<>(nd,
+                         JSTemporal.parseDuration(nd.textValue(), false));
+      parsed = p;
+    }
+
+    return p.value;
+  }
 }
@@ -3,6 +3,7 @@
 */
 package org.bedework.jsforj.impl.values.dataTypes;
 
+import org.bedework.jsforj.impl.JSTemporal;
 import org.bedework.jsforj.impl.values.JSValueImpl;
 import org.bedework.jsforj.model.JSTypes;
 import org.bedework.jsforj.model.values.dataTypes.JSLocalDateTime;
@@ -11,7 +12,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /** Use a string node tohold the value
  *
@@ -19,14 +19,13 @@ import java.time.format.DateTimeFormatter;
  */
 public class JSLocalDateTimeImpl extends JSValueImpl
         implements JSLocalDateTime {
-  //Build formatter
-  static DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+  private JSParsed<LocalDateTime> parsed;
 
   public JSLocalDateTimeImpl(final String value) {
     super(JSTypes.typeLocalDateTime, new TextNode(value));
 
     // validate it
-    LocalDateTime.parse(value, formatter);
+    getDt();
   }
 
   public JSLocalDateTimeImpl(final String type,
@@ -36,6 +35,15 @@ public class JSLocalDateTimeImpl extends JSValueImpl
 
   @Override
   public LocalDateTime getDt() {
-    return LocalDateTime.parse(getNode().textValue(), formatter);
+    final var nd = getNode();
+    var p = parsed;
+
+    if ((p == null) || (p.node != nd)) {
+      p = new JSParsed<>(nd,
+                         JSTemporal.parseLocalDateTime(nd.textValue()));
+      parsed = p;
+    }
+
+    return p.value;
   }
 }
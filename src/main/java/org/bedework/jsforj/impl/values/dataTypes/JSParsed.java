@@ -0,0 +1,22 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.impl.values.dataTypes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/** A parsed value with the node it was parsed from. The value is
+ * reparsed if the node is replaced, e.g. on update or when copied
+ * for an override. Held in a single reference so that readers on
+ * other threads see a consistent pair.
+ */
+class JSParsed<T> {
+  final JsonNode node;
+  final T value;
+
+  JSParsed(final JsonNode node,
+           final T value) {
+    this.node = node;
+    this.value = value;
+  }
+}
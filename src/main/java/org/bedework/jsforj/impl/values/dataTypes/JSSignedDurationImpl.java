@@ -3,6 +3,7 @@
 */
 package org.bedework.jsforj.impl.values.dataTypes;
 
+import org.bedework.jsforj.impl.JSTemporal;
 import org.bedework.jsforj.impl.values.JSValueImpl;
 import org.bedework.jsforj.model.JSTypes;
 import org.bedework.jsforj.model.values.dataTypes.JSSignedDuration;
@@ -10,21 +11,54 @@ import org.bedework.jsforj.model.values.dataTypes.JSSignedDuration;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 
+import java.time.Duration;
+import java.time.Period;
+
 /** Use a string node tohold the value
  *
  * User: mike Date: 10/25/19 Time: 12:45
  */
 public class JSSignedDurationImpl extends JSValueImpl
         implements JSSignedDuration {
+  private JSParsed<JSTemporal.DurationValue> parsed;
+
   public JSSignedDurationImpl(final String value) {
     super(JSTypes.typeSignedDuration, new TextNode(value));
 
     // validate it
-    // ...
+    getParsed();
   }
 
   public JSSignedDurationImpl(final String type,
                               final JsonNode node) {
     super(type, node);
   }
+
+  @Override
+  public Duration getDuration() {
+    return getParsed().getDuration();
+  }
+
+  @Override
+  public Period getPeriod() {
+    return getParsed().getPeriod();
+  }
+
+  @Override
+  public Duration getTime() {
+    return getParsed().getTime();
+  }
+
+  private JSTemporal.DurationValue getParsed() {
+    final var nd = getNode();
+    var p = parsed;
+
+    if ((p == null) || (p.node != nd)) {
+      p = new JSParsed<>(nd,
+                         JSTemporal.parseDuration(nd.textValue(), true));
+      parsed = p;
+    }
+
+    return p.value;
+  }
 }
@@ -3,6 +3,7 @@
 */
 package org.bedework.jsforj.impl.values.dataTypes;
 
+import org.bedework.jsforj.impl.JSTemporal;
 import org.bedework.jsforj.impl.values.JSValueImpl;
 import org.bedework.jsforj.model.JSTypes;
 import org.bedework.jsforj.model.values.dataTypes.JSUTCDateTime;
@@ -18,11 +19,13 @@ import java.time.Instant;
  */
 public class JSUTCDateTimeImpl extends JSValueImpl
         implements JSUTCDateTime {
+  private JSParsed<Instant> parsed;
+
   public JSUTCDateTimeImpl(final String value) {
     super(JSTypes.typeUTCDateTime, new TextNode(value));
 
     // validate it
-    Instant.parse(value);
+    getDt();
   }
 
   public JSUTCDateTimeImpl(final String type,
@@ -32,6 +35,15 @@ public class JSUTCDateTimeImpl extends JSValueImpl
 
   @Override
   public Instant getDt() {
-    return Instant.parse(getNode().textValue());
+    final var nd = getNode();
+    var p = parsed;
+
+    if ((p == null) || (p.node != nd)) {
+      p = new JSParsed<>(nd,
+                         JSTemporal.parseUTCDateTime(nd.textValue()));
+      parsed = p;
+    }
+
+    return p.value;
   }
 }
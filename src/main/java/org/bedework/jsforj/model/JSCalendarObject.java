@@ -12,6 +12,9 @@ import org.bedework.jsforj.model.values.collections.JSRelations;
 import org.bedework.jsforj.model.values.collections.JSReplyTo;
 import org.bedework.jsforj.model.values.dataTypes.JSLocalDateTime;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /** Top level objects
  *
  * User: mike Date: 10/23/19 Time: 16:46
@@ -153,4 +156,16 @@ public interface JSCalendarObject extends JSValue {
    * @return relations object
    */
   JSRelations getRelatedTo(boolean create);
+
+  /** Instances starting in the range. For a recurring object rules
+   * with no count are only expanded over the range, not from the
+   * start of the series.
+   *
+   * @param from start of range - inclusive
+   * @param to end of range - exclusive
+   * @return start of each instance in the range in order
+   * throws JsforjException if there is no start
+   */
+  List<LocalDateTime> getOccurrences(LocalDateTime from,
+                                     LocalDateTime to);
 }
@@ -9,4 +9,29 @@ public interface JSGroup extends JSCalendarObject {
   List<JSCalendarObject> getEntries();
 
   void addEntry(JSCalendarObject val);
+
+  /**
+   *
+   * @param uid of entry
+   * @param recurrenceId of entry - null for none
+   * @return the entry or null
+   */
+  JSCalendarObject findByUid(String uid,
+                             String recurrenceId);
+
+  /** Replace the entry with the same uid and recurrenceId or add it
+   * if there is none.
+   *
+   * @param val new entry
+   */
+  void replaceByUid(JSCalendarObject val);
+
+  /**
+   *
+   * @param uid of entry
+   * @param recurrenceId of entry - null for none
+   * @return true if an entry was removed
+   */
+  boolean removeByUid(String uid,
+                      String recurrenceId);
 }
@@ -0,0 +1,54 @@
+package org.bedework.jsforj.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+
+/** Steps through the properties of a value without building a
+ * property or typed value for each. The cursor object is reused for
+ * each property - the wrappers are only built by
+ * {@link #getProperty()}.
+ */
+public interface JSPropertyCursor {
+  /** Move to the next property.
+   *
+   * @return false if there are no more properties
+   */
+  boolean next();
+
+  /**
+   *
+   * @return name of the current property
+   */
+  String getName();
+
+  /**
+   *
+   * @return json kind of the current value
+   */
+  JsonNodeType getKind();
+
+  /**
+   *
+   * @return registered type of the current property - null if unknown
+   */
+  String getType();
+
+  /**
+   *
+   * @return node for the current value - do not modify
+   */
+  JsonNode getNode();
+
+  /**
+   *
+   * @return true if the property has already been built
+   */
+  boolean isMaterialized();
+
+  /** Builds the property and its typed value if needed. The result
+   * is the same as getProperty(getName()) on the owning value.
+   *
+   * @return the current property
+   */
+  JSProperty<?> getProperty();
+}
@@ -1,6 +1,7 @@
 package org.bedework.jsforj.model.values;
 
 import org.bedework.jsforj.model.values.collections.JSArray;
+import org.bedework.jsforj.model.values.collections.JSIntArray;
 import org.bedework.jsforj.model.values.dataTypes.JSLocalDateTime;
 import org.bedework.jsforj.model.values.dataTypes.JSUnsignedInteger;
 
@@ -45,7 +46,7 @@ public interface JSRecurrenceRule extends JSValue {
 
   void setByMonthDay(JSArray<Integer> val);
 
-  JSArray<Integer> getByMonthDay(boolean create);
+  JSIntArray<Integer> getByMonthDay(boolean create);
 
   void setByMonth(JSArray<String> val);
 
@@ -53,27 +54,27 @@ public interface JSRecurrenceRule extends JSValue {
 
   void setByYearDay(JSArray<Integer> val);
 
-  JSArray<Integer> getByYearDay(boolean create);
+  JSIntArray<Integer> getByYearDay(boolean create);
 
   void setByWeekNo(JSArray<Integer> val);
 
-  JSArray<Integer> getByWeekNo(boolean create);
+  JSIntArray<Integer> getByWeekNo(boolean create);
 
   void setByHour(JSArray<JSUnsignedInteger> val);
 
-  JSArray<JSUnsignedInteger> getByHour(boolean create);
+  JSIntArray<JSUnsignedInteger> getByHour(boolean create);
 
   void setByMinute(JSArray<JSUnsignedInteger> val);
 
-  JSArray<JSUnsignedInteger> getByMinute(boolean create);
+  JSIntArray<JSUnsignedInteger> getByMinute(boolean create);
 
   void setBySecond(JSArray<JSUnsignedInteger> val);
 
-  JSArray<JSUnsignedInteger> getBySecond(boolean create);
+  JSIntArray<JSUnsignedInteger> getBySecond(boolean create);
 
   void setBySetPosition(JSArray<Integer> val);
 
-  JSArray<Integer> getBySetPosition(boolean create);
+  JSIntArray<Integer> getBySetPosition(boolean create);
 
   void setCount(JSUnsignedInteger val);
 
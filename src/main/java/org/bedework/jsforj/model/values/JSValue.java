@@ -2,12 +2,15 @@ package org.bedework.jsforj.model.values;
 
 import org.bedework.jsforj.JsforjException;
 import org.bedework.jsforj.model.JSProperty;
+import org.bedework.jsforj.model.JSPropertyCursor;
 import org.bedework.jsforj.model.values.dataTypes.JSUnsignedInteger;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
 import java.io.Writer;
 import java.lang.reflect.Constructor;
 import java.util.List;
@@ -58,6 +61,22 @@ public interface JSValue {
    */
   boolean hasChanges();
 
+  /** Enable or disable caching of the serialized json for this
+   * value. When enabled, json text output reuses the encoding of any
+   * subtree not modified since it was last written and only the
+   * modified subtrees are re-encoded. Disabling drops the cache.
+   *
+   * <p>The cache is keyed on the JsonFactory of the mapper or
+   * generator used, so its features and escapes apply. A subtree is
+   * taken to be unchanged unless it was modified through the value
+   * methods, which stamp each change. Changes made directly to the
+   * json nodes are not seen - disable and re-enable caching after
+   * making any.</p>
+   *
+   * @param val true to cache
+   */
+  void setCacheSerialized(boolean val);
+
   /**
    * @return next value up in hierarchy
    */
@@ -89,6 +108,14 @@ public interface JSValue {
    */
   List<JSProperty<?>> getProperties();
 
+  /** Return a cursor over the contained properties. Unlike
+   * getProperties() no property or value objects are built until
+   * the cursor is asked for the property.
+   *
+   * @return cursor positioned before the first property
+   */
+  JSPropertyCursor getPropertyCursor();
+
   /** Return named property
    *
    * @param type expected type
@@ -256,6 +283,30 @@ public interface JSValue {
   void writeValue(Writer wtr,
                   ObjectMapper mapper);
 
+  /** Emit this value as tokens to the generator. No intermediate
+   * tree or String is built so the generator may write straight to
+   * the client. The generator is not flushed or closed.
+   *
+   * @param gen to write to
+   */
+  void writeValue(JsonGenerator gen);
+
+  /** Convert to the mapper's format with this as root. Used for
+   * binary formats such as Smile or CBOR.
+   *
+   * @param os to write to
+   * @param mapper to convert
+   */
+  void writeValue(OutputStream os,
+                  ObjectMapper mapper);
+
+  /** Convert to the mapper's format with this as root
+   *
+   * @param mapper to convert
+   * @return encoded value
+   */
+  byte[] writeValueAsBytes(ObjectMapper mapper);
+
   /** Convert to json with this as root
    *
    * @param mapper to convert
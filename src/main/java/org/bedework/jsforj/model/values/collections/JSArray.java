@@ -32,12 +32,36 @@ public interface JSArray<T> extends JSValue {
    */
   T get(int index);
 
+  /** Elements match if their json is equal. In keyed arrays, such as
+   * group entries keyed by uid and recurrenceId, elements match if
+   * their keys are equal whatever the rest of their content.
+   *
+   * @param val to look for
+   * @return true if the array has a matching element
+   */
+  boolean contains(T val);
+
+  /** Elements are matched as for contains.
+   *
+   * @param val to look for
+   * @return position of the first matching element or -1
+   */
+  int indexOf(T val);
+
   /**
    *
    * @param val to be added to list
    */
   void add(T val);
 
+  /**
+   *
+   * @param index of element to replace
+   * @param val new value
+   */
+  void set(int index,
+           T val);
+
   /**
    *
    * @param index of element to remove
@@ -45,7 +69,9 @@ public interface JSArray<T> extends JSValue {
    */
   void remove(int index);
 
-  /**
+  /** Removes the first element matching as for contains - for
+   * group entries that is any entry with the same uid and
+   * recurrenceId.
    *
    * @param val to remove
    * @return  false if not found
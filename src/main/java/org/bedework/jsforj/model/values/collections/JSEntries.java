@@ -6,4 +6,28 @@ import org.bedework.jsforj.model.JSCalendarObject;
  * User: mike Date: 10/25/19 Time: 12:46
  */
 public interface JSEntries extends JSArray<JSCalendarObject> {
+  /**
+   *
+   * @param uid of entry
+   * @param recurrenceId of entry - null for none
+   * @return the entry or null
+   */
+  JSCalendarObject find(String uid,
+                        String recurrenceId);
+
+  /** Replace the entry with the same uid and recurrenceId or add it
+   * if there is none.
+   *
+   * @param val new entry
+   */
+  void replace(JSCalendarObject val);
+
+  /**
+   *
+   * @param uid of entry
+   * @param recurrenceId of entry - null for none
+   * @return true if an entry was removed
+   */
+  boolean remove(String uid,
+                 String recurrenceId);
 }
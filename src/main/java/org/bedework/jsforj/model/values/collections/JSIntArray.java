@@ -0,0 +1,56 @@
+package org.bedework.jsforj.model.values.collections;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/** An array of integers with primitive accessors. The values are
+ * read once and held until the array is changed, so repeated
+ * lookups do not box or walk the json.
+ */
+public interface JSIntArray<T> extends JSArray<T> {
+  /**
+   *
+   * @return the values in order - a copy
+   */
+  int[] getInts();
+
+  /**
+   *
+   * @return stream of the values in order
+   */
+  IntStream intStream();
+
+  /**
+   *
+   * @param val to look for
+   * @return true if present
+   */
+  boolean containsInt(int val);
+
+  /** Suitable for byHour, byMinute and bySecond.
+   *
+   * @return bit n set for each value n
+   * throws JsforjException if any value is outside 0 to 63
+   */
+  default long getMask() {
+    return getMask(0);
+  }
+
+  /** For values which may be negative but span no more than 64,
+   * e.g. byMonthDay with an offset of 31.
+   *
+   * @param offset added to each value
+   * @return bit (value + offset) set for each value
+   * throws JsforjException if any value + offset is outside 0 to 63
+   */
+  long getMask(int offset);
+
+  /** For values which may be negative, e.g. byYearDay, the offset
+   * makes all bit indexes positive.
+   *
+   * @param offset added to each value
+   * @return set with bit (value + offset) set for each value
+   * throws JsforjException if any value + offset is negative
+   */
+  BitSet getBitSet(int offset);
+}
@@ -2,6 +2,7 @@ package org.bedework.jsforj.model.values.collections;
 
 import org.bedework.jsforj.model.values.JSValue;
 
+import java.util.Collection;
 import java.util.List;
 
 /** Have type xxx[Boolean]
@@ -32,16 +33,42 @@ public interface JSList<T> extends JSValue {
    */
   T get(int index);
 
+  /**
+   *
+   * @param val to look for
+   * @return true if val is in the list
+   */
+  boolean contains(T val);
+
+  /**
+   *
+   * @param vals to look for
+   * @return true if all of vals are in the list
+   */
+  boolean containsAll(Collection<? extends T> vals);
+
   /**
    *
    * @param val to be added to list
    */
   void add(T val);
 
+  /**
+   *
+   * @param vals to be added to list
+   */
+  void addAll(Collection<? extends T> vals);
+
   /**
    *
    * @param val to remove
    * throws JsforjException if index out of bounds
    */
   void remove(T val);
+
+  /**
+   *
+   * @param vals to remove - those not in the list are ignored
+   */
+  void removeAll(Collection<? extends T> vals);
 }
@@ -7,6 +7,11 @@ import org.bedework.jsforj.model.JSCalendarObject;
 import org.bedework.jsforj.model.values.JSOverride;
 import org.bedework.jsforj.model.values.dataTypes.JSLocalDateTime;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+
 /**
  * User: mike Date: 4/21/20 Time: 13:45
  */
@@ -15,4 +20,36 @@ public interface JSRecurrenceOverrides
   void setMaster(JSCalendarObject val);
 
   JSCalendarObject getMaster();
+
+  /**
+   *
+   * @return unmodifiable snapshot of the recurrence ids in order -
+   *         later changes to the overrides are not reflected
+   */
+  NavigableSet<LocalDateTime> navigableKeys();
+
+  /** Only the overrides in the range are built.
+   *
+   * @param from start of range - inclusive
+   * @param to end of range - exclusive
+   * @return the overrides in the range by recurrence id
+   */
+  NavigableMap<LocalDateTime, JSOverride> subMap(LocalDateTime from,
+                                                 LocalDateTime to);
+
+  /**
+   *
+   * @param val a recurrence id
+   * @return override with the least recurrence id at or after val -
+   *         null for none
+   */
+  Map.Entry<LocalDateTime, JSOverride> ceilingEntry(LocalDateTime val);
+
+  /**
+   *
+   * @param val a recurrence id
+   * @return override with the greatest recurrence id at or before
+   *         val - null for none
+   */
+  Map.Entry<LocalDateTime, JSOverride> floorEntry(LocalDateTime val);
 }
@@ -2,8 +2,29 @@ package org.bedework.jsforj.model.values.dataTypes;
 
 import org.bedework.jsforj.model.values.JSValue;
 
+import java.time.Duration;
+import java.time.Period;
+
 /**
  * User: mike Date: 10/25/19 Time: 12:46
  */
 public interface JSDuration extends JSValue {
+  /**
+   *
+   * @return the whole duration with days taken as 24 hours
+   */
+  Duration getDuration();
+
+  /** Weeks and days are nominal - when added to a zoned time the
+   * time of day is kept across daylight saving changes.
+   *
+   * @return weeks and days as a number of days
+   */
+  Period getPeriod();
+
+  /**
+   *
+   * @return the hours, minutes and seconds
+   */
+  Duration getTime();
 }
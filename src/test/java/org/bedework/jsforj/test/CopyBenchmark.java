@@ -0,0 +1,71 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.test;
+
+import org.bedework.jsforj.impl.JSMapper;
+import org.bedework.jsforj.model.values.JSValue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.file.Path;
+
+/** Times a copy made by reflective constructor lookup on each call,
+ * as copy() used to do, against copy() with its cached constructor.
+ *
+ * <p>Not a unit test - run it outside surefire from the project
+ * directory, e.g.
+ * <pre>
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes:&lt;dependencies&gt; \
+ *        org.bedework.jsforj.test.CopyBenchmark [iterations]
+ * </pre>
+ */
+public class CopyBenchmark {
+  private final static String dataPath =
+          "src/test/resources/data/";
+
+  public static void main(final String[] args) throws Throwable {
+    final int iterations = (args.length == 0) ? 100000
+                                              : Integer.parseInt(args[0]);
+
+    final var obj = new JSMapper().parse(
+            Path.of(dataPath, "recurringParticipants.json"));
+    final var part = obj.getParticipants(false).get()
+                        .get(0).getValue();
+
+    // Warm up
+    reflective(part, iterations);
+    cached(part, iterations);
+
+    final long reflective = reflective(part, iterations);
+    final long cached = cached(part, iterations);
+
+    System.out.println("copy: reflective=" + reflective +
+                               "ns cached=" + cached + "ns");
+  }
+
+  /* Mean nanoseconds per copy */
+  private static long reflective(final JSValue val,
+                                 final int iterations)
+          throws Throwable {
+    final long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      val.getClass().getConstructor(String.class, JsonNode.class)
+         .newInstance(val.getObjectType(),
+                      val.getNode().deepCopy());
+    }
+
+    return (System.nanoTime() - start) / iterations;
+  }
+
+  private static long cached(final JSValue val,
+                             final int iterations) {
+    final long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      val.copy();
+    }
+
+    return (System.nanoTime() - start) / iterations;
+  }
+}
@@ -0,0 +1,74 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.test;
+
+import org.bedework.jsforj.impl.JSMapper;
+import org.bedework.jsforj.impl.recurrence.JSRecurrenceExpander;
+import org.bedework.jsforj.model.JSCalendarObject;
+
+import java.nio.charset.StandardCharsets;
+
+/** Times the expansion of a 10 year daily rule on the day stepping
+ * fast path against the same rule forced through the general
+ * expansion by a redundant byHour.
+ *
+ * <p>Not a unit test - run it outside surefire, e.g.
+ * <pre>
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes:&lt;dependencies&gt; \
+ *        org.bedework.jsforj.test.ExpansionBenchmark [iterations]
+ * </pre>
+ */
+public class ExpansionBenchmark {
+  private static final JSMapper mapper = new JSMapper();
+
+  public static void main(final String[] args) {
+    final int iterations = (args.length == 0) ? 100
+                                              : Integer.parseInt(args[0]);
+
+    final var daily = recurring(
+            "{\"frequency\": \"daily\", " +
+                    "\"until\": \"2027-12-31T23:59:59\"}");
+    final var general = recurring(
+            "{\"frequency\": \"daily\", \"byHour\": [7], " +
+                    "\"until\": \"2027-12-31T23:59:59\"}");
+
+    final long instances = JSRecurrenceExpander.stream(daily).count();
+    if (instances != JSRecurrenceExpander.stream(general).count()) {
+      throw new IllegalStateException("Expansions differ");
+    }
+
+    // Warm up
+    time(daily, iterations);
+    time(general, iterations);
+
+    final long fast = time(daily, iterations);
+    final long slow = time(general, iterations);
+
+    System.out.println("10 years daily (" + instances + " instances): " +
+                               "fast=" + (fast / 1000) + "us " +
+                               "general=" + (slow / 1000) + "us");
+  }
+
+  /* Mean nanoseconds per full expansion */
+  private static long time(final JSCalendarObject obj,
+                           final int iterations) {
+    final long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      JSRecurrenceExpander.stream(obj).count();
+    }
+
+    return (System.nanoTime() - start) / iterations;
+  }
+
+  private static JSCalendarObject recurring(final String rule) {
+    final var json = "{\"@type\": \"jsevent\", " +
+            "\"uid\": \"benchmark\", " +
+            "\"start\": \"2018-01-01T07:00:00\", " +
+            "\"duration\": \"PT1H\", " +
+            "\"recurrenceRules\": [" + rule + "]}";
+
+    return mapper.parse(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,94 @@
+/* ********************************************************************
+    Appropriate copyright notice
+*/
+package org.bedework.jsforj.test;
+
+import org.bedework.jsforj.impl.JSMapper;
+import org.bedework.jsforj.model.JSCalendarObject;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Compares the encoded size and the encode and decode times of
+ * json, Smile and CBOR over the test data files.
+ *
+ * <p>Not a unit test - run it outside surefire from the project
+ * directory, e.g.
+ * <pre>
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes:&lt;dependencies&gt; \
+ *        org.bedework.jsforj.test.FormatBenchmark [iterations]
+ * </pre>
+ */
+public class FormatBenchmark {
+  private final static String dataPath =
+          "src/test/resources/data/";
+
+  public static void main(final String[] args) throws IOException {
+    final int iterations = (args.length == 0) ? 200
+                                              : Integer.parseInt(args[0]);
+    final var mapper = new JSMapper();
+    final List<JSCalendarObject> objs = new ArrayList<>();
+
+    try (final DirectoryStream<Path> filesStream =
+                 Files.newDirectoryStream(Path.of(dataPath), "*.json")) {
+      for (final var path: filesStream) {
+        objs.add(mapper.parse(path));
+      }
+    }
+
+    // Warm up
+    compareFormat(null, mapper, objs, iterations);
+    compareFormat(null, JSMapper.smile(), objs, iterations);
+    compareFormat(null, JSMapper.cbor(), objs, iterations);
+
+    compareFormat("json", mapper, objs, iterations);
+    compareFormat("smile", JSMapper.smile(), objs, iterations);
+    compareFormat("cbor", JSMapper.cbor(), objs, iterations);
+  }
+
+  /* Round trip each object and report total size and encode/decode
+     time per pass over all the objects. Nothing is reported if name
+     is null.
+   */
+  private static void compareFormat(final String name,
+                                    final JSMapper fmtMapper,
+                                    final List<JSCalendarObject> objs,
+                                    final int iterations) {
+    long size = 0;
+    long encodeNanos = 0;
+    long decodeNanos = 0;
+
+    for (final var obj: objs) {
+      final byte[] bytes = obj.writeValueAsBytes(fmtMapper);
+      size += bytes.length;
+
+      if (!obj.equals(fmtMapper.parse(bytes))) {
+        throw new IllegalStateException("Round trip differs");
+      }
+
+      for (int i = 0; i < iterations; i++) {
+        final long start = System.nanoTime();
+        obj.writeValueAsBytes(fmtMapper);
+        final long encoded = System.nanoTime();
+        fmtMapper.parse(bytes);
+        decodeNanos += System.nanoTime() - encoded;
+        encodeNanos += encoded - start;
+      }
+    }
+
+    if (name == null) {
+      return;
+    }
+
+    System.out.println(name + ": bytes=" + size +
+                               " encodeUs=" +
+                               (encodeNanos / iterations / 1000) +
+                               " decodeUs=" +
+                               (decodeNanos / iterations / 1000));
+  }
+}
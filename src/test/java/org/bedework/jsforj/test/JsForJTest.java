@@ -3,17 +3,30 @@
 */
 package org.bedework.jsforj.test;
 
+import org.bedework.jsforj.JSRegistration;
+import org.bedework.jsforj.JsforjException;
 import org.bedework.jsforj.impl.JSFactory;
 import org.bedework.jsforj.impl.JSMapper;
+import org.bedework.jsforj.impl.JSPatchPath;
+import org.bedework.jsforj.impl.JSPropertyNames;
+import org.bedework.jsforj.impl.JSSequenceReader;
+import org.bedework.jsforj.impl.JSTemporal;
+import org.bedework.jsforj.impl.freebusy.JSFreeBusy;
+import org.bedework.jsforj.impl.recurrence.JSRecurrenceExpander;
 import org.bedework.jsforj.impl.values.JSOverrideImpl;
+import org.bedework.jsforj.impl.values.collections.JSEntriesImpl;
 import org.bedework.jsforj.impl.values.collections.JSReplyToImpl;
 import org.bedework.jsforj.impl.values.collections.JSUnsignedIntArrayImpl;
+import org.bedework.jsforj.impl.values.dataTypes.JSDurationImpl;
+import org.bedework.jsforj.impl.values.dataTypes.JSLocalDateTimeImpl;
+import org.bedework.jsforj.impl.values.dataTypes.JSSignedDurationImpl;
 import org.bedework.jsforj.impl.values.dataTypes.JSStringImpl;
 import org.bedework.jsforj.impl.values.dataTypes.JSUnsignedIntegerImpl;
 import org.bedework.jsforj.model.JSCalendarObject;
 import org.bedework.jsforj.model.JSEvent;
 import org.bedework.jsforj.model.JSGroup;
 import org.bedework.jsforj.model.JSProperty;
+import org.bedework.jsforj.model.JSTask;
 import org.bedework.jsforj.model.JSTypes;
 import org.bedework.jsforj.model.values.JSLink;
 import org.bedework.jsforj.model.values.JSLocation;
@@ -31,24 +44,53 @@ import org.bedework.jsforj.model.values.collections.JSRecurrenceRules;
 import org.bedework.jsforj.model.values.dataTypes.JSString;
 import org.bedework.util.misc.Util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -213,6 +255,18 @@ public class JsForJTest {
       anObject.getValue().setProperty("another/odd/name/with/slash",
                                       "and that again");
 
+      // The override shares unchanged master values
+      assertTrue(obj.getNode().get("comments") ==
+                         override.getNode().get("comments"));
+
+      // and copies those it changes
+      assertEquals("take that",
+                   obj.getNode().get("anObject")
+                      .get("another/odd/name/with/slash").textValue());
+      assertEquals("and that again",
+                   override.getNode().get("anObject")
+                           .get("another/odd/name/with/slash")
+                           .textValue());
 
       info(obj.writeValueAsStringFormatted(mapper));
     } catch (final Throwable t) {
@@ -221,6 +275,74 @@ public class JsForJTest {
     }
   }
 
+  @Test
+  public void testMasterEditAfterView() {
+    try {
+      final var rid = "2018-03-08T09:00:00";
+      final var json = "{\"@type\": \"jsevent\", " +
+              "\"uid\": \"" + UUID.randomUUID() + "\", " +
+              "\"title\": \"Master\", " +
+              "\"start\": \"2018-01-15T13:00:00\", " +
+              "\"anObject\": {\"@type\": \"atype\", \"a\": \"1\"}, " +
+              "\"other\": {\"@type\": \"atype\", \"b\": \"2\"}, " +
+              "\"recurrenceRules\": [{\"@type\": \"RecurrenceRule\", " +
+              "\"frequency\": \"weekly\"}], " +
+              "\"recurrenceOverrides\": {\"" + rid + "\": " +
+              "{\"anObject/a\": \"patched\"}}}";
+
+      final JSCalendarObject obj =
+              mapper.parse(json.getBytes(StandardCharsets.UTF_8));
+      final var override = obj.getOverrides(false).get().get(0)
+                              .getValue();
+      final var view = override.getNode().deepCopy();
+
+      obj.setTitle("Changed");
+      obj.getProperty("other").getValue().setProperty("b", "changed");
+      obj.getProperty("anObject").getValue().setProperty("c", "added");
+
+      // The master sees its changes
+      assertEquals("changed",
+                   obj.getNode().get("other").get("b").textValue());
+
+      // but the view and its patches do not
+      assertEquals(view, override.getNode());
+
+      final var written = new ObjectMapper().readTree(
+              obj.writeValueAsString(mapper));
+      final var patch = written.get("recurrenceOverrides").get(rid);
+      assertEquals(1, patch.size());
+      assertEquals("patched", patch.get("anObject/a").textValue());
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testPatchPath() {
+    try {
+      final var key = "anObject/x~1y/~0z/~01";
+      final var segs = JSPatchPath.segments(key);
+      assertTrue(Arrays.equals(new String[]{"anObject", "x/y", "~z", "~1"},
+                               segs));
+      assertSame(segs, JSPatchPath.segments(key));
+      assertEquals("~1", JSPatchPath.last(key));
+      assertEquals("plain", JSPatchPath.last("plain"));
+
+      // Filling the cache drops it so the key is split again
+      for (int i = 0; i < 5000; i++) {
+        assertEquals("seg" + i, JSPatchPath.last("a~1b/seg" + i));
+      }
+
+      final var again = JSPatchPath.segments(key);
+      assertNotSame(segs, again);
+      assertTrue(Arrays.equals(segs, again));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
   @Test
   public void testAlertEvent() {
     try {
@@ -245,6 +367,23 @@ public class JsForJTest {
     }
   }
 
+  private List<String> readSequence(
+          final String seq,
+          final List<JSSequenceReader.Failure> failures) {
+    final List<String> uids = new ArrayList<>();
+
+    try (final var rdr = mapper.readSequence(
+            new ByteArrayInputStream(
+                    seq.getBytes(StandardCharsets.UTF_8)),
+            failures::add)) {
+      rdr.forEachRemaining(o -> uids.add(o.getUid()));
+
+      info(rdr.getStats().toString());
+    }
+
+    return uids;
+  }
+
   private JSCalendarObject readSpecificFile(final String name) {
     try {
       final Path jpath = FileSystems.getDefault()
@@ -315,6 +454,1206 @@ public class JsForJTest {
     }
   }
 
+  @Test
+  public void testStreamGroup() {
+    try {
+      final File jsonGroup = new File(dataPath + "simpleGroup.json");
+      final List<JSCalendarObject> entries = new ArrayList<>();
+
+      final var obj = mapper.parse(new FileReader(jsonGroup),
+                                   entries::add);
+
+      assertTrue("Not JSGroup", obj instanceof JSGroup);
+      assertEquals("A simple group", obj.getStringProperty("name"));
+      assertTrue("Entries retained",
+                 ((JSGroup)obj).getEntries().isEmpty());
+
+      assertEquals("Not 2 entries", 2, entries.size());
+      assertTrue("Not JSEvent", entries.get(0) instanceof JSEvent);
+      assertEquals("2a358cee-6489-4f14-a57f-c104db4dc2f2",
+                   entries.get(1).getUid());
+
+      try (final var ents = mapper.entries(new FileReader(jsonGroup),
+                                           true)) {
+        assertEquals("Not 2 streamed entries", 2,
+                     ents.filter(e -> e.getUid() != null).count());
+      }
+
+      // Write it back one entry at a time
+      final var out = new ByteArrayOutputStream();
+      try (final var gw = mapper.groupWriter(out, (JSGroup)obj)) {
+        entries.forEach(gw::writeEntry);
+      }
+
+      final var written = mapper.parse(out.toByteArray());
+      assertEquals(mapper.parse(new FileReader(jsonGroup)), written);
+      assertEquals(entries.get(1).writeValueAsString(mapper),
+                   ((JSGroup)written).getEntries().get(1)
+                                     .writeValueAsString(mapper));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testSequence() {
+    try {
+      final String ndjson =
+              "{\"@type\": \"jsevent\", \"uid\": \"a1\"}\n" +
+              "{\"@type\": \"jsevent\", \"uid\": \n" +
+              "{\"uid\": \"no-type\"}\n" +
+              "{\"@type\": \"jstask\", \"uid\": \"a2\"}\n";
+      final List<JSSequenceReader.Failure> failures =
+              new ArrayList<>();
+
+      assertEquals(List.of("a1", "a2"),
+                   readSequence(ndjson, failures));
+      assertEquals("Expected 2 failures", 2, failures.size());
+
+      final String jsonSeq =
+              "\u001E{\n  \"@type\": \"jsevent\",\n  \"uid\": \"b1\"\n}\n" +
+              "\u001E{\n  \"@type\": \"jsevent\",\n  \"uid\": \n" +
+              "\u001E{\n  \"@type\": \"jstask\",\n  \"uid\": \"b2\"\n}\n";
+
+      failures.clear();
+      assertEquals(List.of("b1", "b2"),
+                   readSequence(jsonSeq, failures));
+      assertEquals("Expected 1 failure", 1, failures.size());
+
+      // Bytes count what was parsed, not what was buffered ahead
+      final String first = "{\"@type\": \"jsevent\", \"uid\": \"c1\"}";
+      try (final var rdr = mapper.readSequence(
+              new ByteArrayInputStream(
+                      (first + "\n" + first + "\n")
+                              .getBytes(StandardCharsets.UTF_8)),
+              null)) {
+        rdr.next();
+        assertEquals(first.length(), rdr.getStats().getBytes());
+      }
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testParseBytes() {
+    try {
+      final Path path = FileSystems.getDefault()
+                                   .getPath(dataPath, "simpleEvent.json");
+      final var expected = mapper.parse(new FileReader(path.toFile()));
+      final var bytes = Files.readAllBytes(path);
+
+      assertEquals(expected, mapper.parse(bytes));
+      assertEquals(expected, mapper.parse(ByteBuffer.wrap(bytes)));
+      assertEquals(expected, mapper.parse(path));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testProjection() {
+    try {
+      final JSCalendarObject obj = mapper.parse(
+              new FileReader(dataPath + "recurringParticipants.json"),
+              List.of("uid", "start", "recurrenceRules",
+                      "/participants/dG9tQGZvb2Jhci5xlLmNvbQ/name"));
+
+      assertEquals("2a358cee-6489-4f14-a57f-c104db4d9999",
+                   obj.getUid());
+      assertNotNull(obj.getRecurrenceRules(false));
+      assertEquals(null, obj.getProperty("title"));
+      assertEquals(null, obj.getProperty("virtualLocations"));
+
+      final var parts = obj.getParticipants(false);
+      assertNotNull(parts);
+      assertEquals(1, parts.get().size());
+
+      final var part = parts.get().get(0).getValue();
+      assertEquals("Tom Tool", part.getName());
+      assertEquals(null, part.getProperty("email"));
+
+      info(obj.writeValueAsStringFormatted(mapper));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testCachedSerialization() {
+    try {
+      final JSCalendarObject obj = mapper.parse(
+              new FileReader(dataPath + "recurringParticipants.json"));
+      final String expected = obj.writeValueAsString(mapper);
+
+      obj.setCacheSerialized(true);
+      assertEquals(expected, obj.writeValueAsString(mapper));
+      assertEquals(expected, obj.writeValueAsString(mapper));
+
+      // Change one participant and one recurrence rule
+      final var part = obj.getParticipants(false).get()
+                          .get(0).getValue();
+      part.setName("Tom Tool Jr");
+      final var rule = obj.getRecurrenceRules(false).get(0);
+      rule.setProperty("example.com:note", "changed");
+
+      final String changed = obj.writeValueAsString(mapper);
+      assertTrue(changed.contains("Tom Tool Jr"));
+      assertTrue(changed.contains("\"example.com:note\":\"changed\""));
+
+      obj.setCacheSerialized(false);
+      assertEquals(obj.writeValueAsString(mapper), changed);
+
+      // Cached output follows the factory of the mapper used
+      obj.setCacheSerialized(true);
+      part.setName("Tom T\u00f6\u00f6l");
+      final var asciiMapper = new ObjectMapper();
+      asciiMapper.getFactory()
+                 .enable(JsonGenerator.Feature.ESCAPE_NON_ASCII);
+      assertTrue(obj.writeValueAsString(mapper)
+                    .contains("Tom T\u00f6\u00f6l"));
+      assertTrue(obj.writeValueAsString(asciiMapper)
+                    .contains("Tom T\\u00F6\\u00F6l"));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testPropertyCursor() {
+    try {
+      final JSCalendarObject obj = mapper.parse(
+              new FileReader(dataPath + "recurringParticipants.json"));
+      final var parts = obj.getParticipants(false);
+
+      final var cursor = parts.getPropertyCursor();
+      JSParticipant zoe = null;
+      int count = 0;
+
+      while (cursor.next()) {
+        count++;
+        assertFalse(cursor.isMaterialized());
+
+        if ("Zoe Zelda".equals(cursor.getNode().path("name")
+                                     .textValue())) {
+          zoe = (JSParticipant)cursor.getProperty().getValue();
+          assertTrue(cursor.isMaterialized());
+        }
+      }
+
+      assertEquals(parts.size(), count);
+      assertNotNull(zoe);
+      assertEquals("zoe@foobar.example.com", zoe.getEmail());
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testParseAll() {
+    try {
+      final Path dir = FileSystems.getDefault().getPath(dataPath);
+      final var results = mapper.parseAll(dir, "*.json", 4);
+
+      assertFalse(results.isEmpty());
+      for (final var res: results) {
+        assertTrue(res.toString(), res.isOk());
+      }
+
+      final List<Path> paths = new ArrayList<>();
+      paths.add(dir.resolve("simpleTask.json"));
+      paths.add(dir.resolve("noSuchFile.json"));
+      paths.add(dir.resolve("simpleEvent.json"));
+
+      final var mixed = mapper.parseAll(paths, 2);
+      assertEquals(3, mixed.size());
+      assertTrue(mixed.get(0).getObject() instanceof JSTask);
+      assertFalse(mixed.get(1).isOk());
+      assertTrue(mixed.get(2).getObject() instanceof JSEvent);
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testConcurrentFactory() {
+    try {
+      final List<JsonNode> nodes = new ArrayList<>();
+      final List<String> expected = new ArrayList<>();
+
+      try (final DirectoryStream<Path> filesStream =
+                   Files.newDirectoryStream(
+                           FileSystems.getDefault().getPath(dataPath),
+                           "*.json")) {
+        for (final var path: filesStream) {
+          final var nd = mapper.readTree(path.toFile());
+          nodes.add(nd);
+          expected.add(mapper.writeValueAsString(nd));
+        }
+      }
+
+      final int threads = 16;
+      final int iterations = 500;
+      final var pool = Executors.newFixedThreadPool(threads);
+      final var start = new CountDownLatch(1);
+      final List<Future<Integer>> results = new ArrayList<>();
+
+      for (int t = 0; t < threads; t++) {
+        final int offset = t;
+        results.add(pool.submit(() -> {
+          start.await();
+          int done = 0;
+
+          for (int i = 0; i < iterations; i++) {
+            final int n = (i + offset) % nodes.size();
+            final var obj = factory.makeCalObj(nodes.get(n).deepCopy());
+
+            // Walk the object to build every value on this thread
+            obj.getProperties();
+            assertEquals(expected.get(n),
+                         obj.writeValueAsString(mapper));
+            done++;
+          }
+
+          return done;
+        }));
+      }
+
+      start.countDown();
+
+      for (final var res: results) {
+        assertEquals(Integer.valueOf(iterations), res.get());
+      }
+
+      pool.shutdown();
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testRegistrationOrder() {
+    try {
+      final var jsFactory = isolatedFactory();
+
+      // Registered first but cannot list its names
+      register(jsFactory, "x-order-first", null, new int[1]);
+      register(jsFactory, "x-order-second", Set.of("x-order"),
+               new int[1]);
+
+      assertEquals("x-order-first",
+                   call(jsFactory, "getPropertyType", "x-order"));
+      assertNull(call(jsFactory, "getPropertyType", "x-order-none"));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testFreeze() {
+    try {
+      final var jsFactory = isolatedFactory();
+      assertNotSame(JSFactory.class, jsFactory);
+      final int[] calls = new int[1];
+
+      register(jsFactory, "x-frozen", Set.of("x-order"), calls);
+      call(jsFactory, "freeze");
+
+      // Compiled by freeze - lookups use the table
+      assertEquals(1, calls[0]);
+      for (int i = 0; i < 10; i++) {
+        assertEquals("x-frozen",
+                     call(jsFactory, "getPropertyType", "x-order"));
+      }
+      assertEquals(JSTypes.typeString,
+                   call(jsFactory, "getPropertyType",
+                        JSPropertyNames.title));
+      assertEquals(1, calls[0]);
+
+      try {
+        register(jsFactory, "x-late", Set.of("x-late"), new int[1]);
+        Assert.fail("Registration accepted after freeze");
+      } catch (final RuntimeException re) {
+        assertEquals(JsforjException.class.getName(),
+                     re.getClass().getName());
+      }
+
+      assertNull(call(jsFactory, "getPropertyType", "x-late"));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  /* JSFactory holds its registrations statically and freeze() cannot
+     be undone, so registration tests use a JSFactory loaded afresh
+     with the rest of the library. Nothing they register or freeze
+     reaches the factory the other tests use.
+   */
+  private static Class<?> isolatedFactory() throws Exception {
+    final var classes = JSFactory.class.getProtectionDomain()
+                                       .getCodeSource().getLocation();
+    final var loader = new URLClassLoader(
+            new URL[]{classes}, JsForJTest.class.getClassLoader()) {
+      @Override
+      protected Class<?> loadClass(final String name,
+                                   final boolean resolve)
+              throws ClassNotFoundException {
+        if (!name.startsWith("org.bedework.jsforj.") ||
+                name.startsWith("org.bedework.jsforj.test.")) {
+          return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+          var c = findLoadedClass(name);
+          if (c == null) {
+            c = findClass(name);
+          }
+
+          if (resolve) {
+            resolveClass(c);
+          }
+
+          return c;
+        }
+      }
+    };
+
+    return loader.loadClass(JSFactory.class.getName());
+  }
+
+  /* Call a static method of the isolated factory - exceptions it
+     throws are rethrown as they are.
+   */
+  private static Object call(final Class<?> jsFactory,
+                             final String name,
+                             final Object... pars) throws Exception {
+    final var types = new Class<?>[pars.length];
+    for (int i = 0; i < pars.length; i++) {
+      types[i] = (pars[i] instanceof String) ? String.class :
+                 jsFactory.getClassLoader().loadClass(
+                         JSRegistration.class.getName());
+    }
+
+    try {
+      return jsFactory.getMethod(name, types).invoke(null, pars);
+    } catch (final InvocationTargetException ite) {
+      if (ite.getCause() instanceof RuntimeException) {
+        throw (RuntimeException)ite.getCause();
+      }
+      throw ite;
+    }
+  }
+
+  /* Register a type for property "x-order" with the isolated factory.
+     The names are listed unless null. calls counts getType calls.
+   */
+  private static void register(final Class<?> jsFactory,
+                               final String type,
+                               final Set<String> names,
+                               final int[] calls) throws Exception {
+    final var regClass = jsFactory.getClassLoader().loadClass(
+            JSRegistration.class.getName());
+
+    final var reg = Proxy.newProxyInstance(
+            regClass.getClassLoader(),
+            new Class<?>[]{regClass},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "getRegistrationName":
+                case "toString":
+                  return type;
+                case "propertyNames":
+                  return names;
+                case "getType":
+                  calls[0]++;
+                  if (!"x-order".equals(args[0])) {
+                    return null;
+                  }
+                  return type;
+                case "hashCode":
+                  return System.identityHashCode(proxy);
+                case "equals":
+                  return proxy == args[0];
+                default:
+                  // getTypeInfo, typeNames
+                  return null;
+              }
+            });
+
+    call(jsFactory, "register", reg);
+  }
+
+  @Test
+  public void testCopy() {
+    try {
+      final JSCalendarObject obj = mapper.parse(
+              new FileReader(dataPath + "recurringParticipants.json"));
+      final var part = obj.getParticipants(false).get()
+                          .get(0).getValue();
+
+      final var copy = part.copy();
+      assertEquals(part.getClass(), copy.getClass());
+      assertEquals(part, copy);
+      assertTrue(part.getNode() != copy.getNode());
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testBinaryFormats() {
+    try {
+      final List<JSCalendarObject> objs = new ArrayList<>();
+
+      try (final DirectoryStream<Path> filesStream =
+                   Files.newDirectoryStream(
+                           FileSystems.getDefault().getPath(dataPath),
+                           "*.json")) {
+        for (final var path: filesStream) {
+          objs.add(mapper.parse(path));
+        }
+      }
+
+      roundTrip(mapper, objs);
+      roundTrip(JSMapper.smile(), objs);
+      roundTrip(JSMapper.cbor(), objs);
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  private void roundTrip(final JSMapper fmtMapper,
+                         final List<JSCalendarObject> objs) {
+    for (final var obj: objs) {
+      assertEquals(obj, fmtMapper.parse(obj.writeValueAsBytes(fmtMapper)));
+    }
+  }
+
+  @Test
+  public void testRecurrenceExpansion() {
+    try {
+      // Last friday of the month
+      assertEquals(List.of("2020-01-31T10:00", "2020-02-28T10:00",
+                           "2020-03-27T10:00"),
+                   expand(recurring("2020-01-31T10:00:00",
+                                    "{\"frequency\": \"monthly\", " +
+                                            "\"byDay\": [{\"day\": \"fr\", " +
+                                            "\"nthOfPeriod\": -1}], " +
+                                            "\"count\": 3}",
+                                    ""), 10));
+
+      // Last weekday of the month
+      assertEquals(List.of("2020-01-31T10:00", "2020-02-28T10:00"),
+                   expand(recurring("2020-01-31T10:00:00",
+                                    "{\"frequency\": \"monthly\", " +
+                                            "\"byDay\": [{\"day\": \"mo\"}, " +
+                                            "{\"day\": \"tu\"}, {\"day\": \"we\"}, " +
+                                            "{\"day\": \"th\"}, {\"day\": \"fr\"}], " +
+                                            "\"bySetPosition\": [-1], " +
+                                            "\"count\": 2}",
+                                    ""), 10));
+
+      // Invalid days are omitted by default
+      assertEquals(List.of("2020-01-31T10:00", "2020-03-31T10:00",
+                           "2020-05-31T10:00"),
+                   expand(recurring("2020-01-31T10:00:00",
+                                    "{\"frequency\": \"monthly\", " +
+                                            "\"count\": 3}",
+                                    ""), 10));
+
+      assertEquals(List.of("2020-02-29T10:00", "2021-02-28T10:00",
+                           "2022-02-28T10:00"),
+                   expand(recurring("2020-02-29T10:00:00",
+                                    "{\"frequency\": \"yearly\", " +
+                                            "\"skip\": \"backward\", " +
+                                            "\"count\": 3}",
+                                    ""), 10));
+
+      // Weekly on two days with an excluded rule and overrides
+      final var obj = recurring(
+              "2020-01-06T09:00:00",
+              "{\"frequency\": \"weekly\", " +
+                      "\"byDay\": [{\"day\": \"mo\"}, {\"day\": \"th\"}], " +
+                      "\"until\": \"2020-01-31T00:00:00\"}",
+              ", \"excludedRecurrenceRules\": [{" +
+                      "\"frequency\": \"monthly\", " +
+                      "\"byMonthDay\": [9]}], " +
+                      "\"recurrenceOverrides\": {" +
+                      "\"2020-01-13T09:00:00\": {\"excluded\": true}, " +
+                      "\"2020-01-14T12:00:00\": {\"title\": \"extra\"}, " +
+                      "\"2020-01-16T09:00:00\": {\"title\": \"moved\"}}");
+      assertEquals(List.of("2020-01-06T09:00", "2020-01-14T12:00",
+                           "2020-01-16T09:00", "2020-01-20T09:00",
+                           "2020-01-23T09:00", "2020-01-27T09:00",
+                           "2020-01-30T09:00"),
+                   expand(obj, 20));
+
+      // A rule which can produce no more instances fails
+      try {
+        expand(recurring("2020-01-01T09:00:00",
+                         "{\"frequency\": \"daily\", " +
+                                 "\"byMonth\": [\"2\"], " +
+                                 "\"byMonthDay\": [30]}",
+                         ""), 10);
+        Assert.fail("Expected exception");
+      } catch (final JsforjException je) {
+        info("Expected: " + je.getMessage());
+      }
+
+      // 10 years daily - fast path agrees with the general expansion
+      final var daily = recurring(
+              "2018-01-01T07:00:00",
+              "{\"frequency\": \"daily\", " +
+                      "\"until\": \"2027-12-31T23:59:59\"}",
+              "");
+      final var general = recurring(
+              "2018-01-01T07:00:00",
+              "{\"frequency\": \"daily\", \"byHour\": [7], " +
+                      "\"until\": \"2027-12-31T23:59:59\"}",
+              "");
+
+      assertEquals(3652, expand(daily, 10000).size());
+      assertEquals(expand(daily, 10000), expand(general, 10000));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testIntArrays() {
+    try {
+      final var obj = recurring("2020-01-01T09:00:00",
+                                "{\"@type\": \"RecurrenceRule\", " +
+                                        "\"frequency\": \"yearly\", " +
+                                        "\"byYearDay\": [1, -1], " +
+                                        "\"byHour\": [9, 17], " +
+                                        "\"count\": 4}",
+                                "");
+
+      final var rule = obj.getRecurrenceRules(false).get().get(0);
+
+      final var hours = rule.getByHour(false);
+      assertTrue(Arrays.equals(new int[]{9, 17}, hours.getInts()));
+      assertEquals((1L << 9) | (1L << 17), hours.getMask());
+      assertTrue(hours.containsInt(17));
+      assertFalse(hours.containsInt(10));
+
+      final var yearDays = rule.getByYearDay(false);
+      assertEquals(0, yearDays.intStream().sum());
+      assertTrue(yearDays.getBitSet(366).get(365));
+      assertTrue(yearDays.getBitSet(366).get(367));
+
+      hours.add(new JSUnsignedIntegerImpl(12));
+      assertTrue(Arrays.equals(new int[]{9, 17, 12}, hours.getInts()));
+
+      assertEquals(List.of("2020-01-01T09:00", "2020-01-01T12:00",
+                           "2020-01-01T17:00", "2020-12-31T09:00"),
+                   expand(obj, 10));
+
+      // Masks may have bit 63 set, and take an offset for negatives
+      final var monthDays = recurring(
+              "2020-01-01T09:00:00",
+              "{\"frequency\": \"monthly\", " +
+                      "\"byMonthDay\": [1, -1, 32], \"count\": 2}",
+              "").getRecurrenceRules(false).get().get(0)
+                 .getByMonthDay(false);
+      final long expected = (1L << 32) | (1L << 30) | (1L << 63);
+      assertEquals(expected, monthDays.getMask(31));
+      assertEquals(expected, monthDays.getMask(31));
+
+      try {
+        monthDays.getMask();
+        Assert.fail("Negative value accepted for mask");
+      } catch (final JsforjException je) {
+        // Expected
+      }
+
+      // The expansion builds the same masks so fails the same way
+      try {
+        expand(recurring("2020-01-01T09:00:00",
+                         "{\"frequency\": \"daily\", " +
+                                 "\"byHour\": [64]}",
+                         ""), 1);
+        Assert.fail("Out of range byHour accepted");
+      } catch (final JsforjException je) {
+        // Expected
+      }
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testListAccess() {
+    try {
+      final JSCalendarObject event =
+              (JSCalendarObject)factory.newValue(JSTypes.typeJSEvent);
+      final JSList<String> keywords = event.getKeywords(true);
+
+      final List<String> vals = new ArrayList<>();
+      for (int i = 0; i < 5000; i++) {
+        vals.add("kw" + i);
+      }
+
+      keywords.addAll(vals);
+      assertEquals(vals.size(), keywords.size());
+      assertTrue(keywords.containsAll(vals));
+      assertFalse(keywords.contains("other"));
+
+      for (int i = 0; i < keywords.size(); i++) {
+        assertEquals(vals.get(i), keywords.get(i));
+      }
+
+      keywords.removeAll(vals.subList(0, 4990));
+      assertEquals(10, keywords.size());
+      assertEquals("kw4990", keywords.get(0));
+      assertFalse(keywords.contains("kw0"));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testArrayIndex() {
+    try {
+      final var group =
+              (JSGroup)factory.newValue(JSTypes.typeJSGroup);
+      final List<JSCalendarObject> added = new ArrayList<>();
+
+      for (int i = 0; i < 2000; i++) {
+        final var ent = mapper.parse(
+                entry("2020-01-06T09:00:00", "PT1H", "null", "")
+                        .getBytes(StandardCharsets.UTF_8));
+        added.add(ent);
+        group.addEntry(ent);
+      }
+
+      @SuppressWarnings("unchecked")
+      final JSArray<JSCalendarObject> entries =
+              (JSArray<JSCalendarObject>)group
+                      .getProperty(JSPropertyNames.entries).getValue();
+
+      assertEquals(1999, entries.indexOf(added.get(1999)));
+      assertTrue(entries.contains(added.get(5)));
+
+      for (final var ent: added) {
+        assertTrue(entries.contains(ent));
+      }
+
+      assertTrue(entries.remove(added.get(0)));
+      assertFalse(entries.contains(added.get(0)));
+      assertEquals(0, entries.indexOf(added.get(1)));
+      assertFalse(entries.remove(added.get(0)));
+
+      entries.clear();
+      assertFalse(entries.contains(added.get(1)));
+      entries.add(added.get(1));
+      assertEquals(0, entries.indexOf(added.get(1)));
+
+      // Rules are found by structure
+      final var obj = recurring("2020-01-06T09:00:00",
+                                "{\"frequency\": \"daily\"}", "");
+      final JSRecurrenceRules rules = obj.getRecurrenceRules(false);
+      final var rule = rules.get(0);
+      assertTrue(rules.contains(rule));
+
+      rule.setFrequency(JSRecurrenceRule.freqWeekly);
+      assertEquals(0, rules.indexOf(rule));
+      assertTrue(rules.remove(rule));
+      assertEquals(0, rules.size());
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testGroupIndex() {
+    try {
+      final var group =
+              (JSGroup)factory.newValue(JSTypes.typeJSGroup);
+      final int num = 50000;
+
+      for (int i = 0; i < num; i++) {
+        group.addEntry(groupEntry("uid-" + i, null, "entry " + i));
+      }
+
+      final var ent = group.findByUid("uid-25000", null);
+      assertEquals("entry 25000", ent.getStringProperty("title"));
+      assertSame(ent, group.findByUid("uid-25000", null));
+      assertNull(group.findByUid("uid-25000", "2020-01-13T09:00:00"));
+
+      // An instance is a separate entry with the same uid
+      group.replaceByUid(groupEntry("uid-25000", "2020-01-13T09:00:00",
+                                    "instance"));
+      assertEquals(num + 1, group.getEntries().size());
+      assertEquals("instance",
+                   group.findByUid("uid-25000", "2020-01-13T09:00:00")
+                        .getStringProperty("title"));
+
+      for (int i = 0; i < 1000; i++) {
+        group.replaceByUid(groupEntry("uid-" + (i * 37),
+                                      null, "updated"));
+      }
+
+      assertEquals(num + 1, group.getEntries().size());
+      assertEquals("updated", group.findByUid("uid-37", null)
+                                   .getStringProperty("title"));
+
+      // Entries with no uid are keyed on null
+      final var noUid =
+              (JSCalendarObject)factory.newValue(JSTypes.typeJSEvent);
+      noUid.setTitle("no uid");
+      group.replaceByUid(noUid);
+      group.replaceByUid(noUid);
+      assertSame(noUid, group.findByUid(null, null));
+      assertTrue(group.removeByUid(null, null));
+
+      assertTrue(group.removeByUid("uid-25000", null));
+      assertFalse(group.removeByUid("uid-25000", null));
+      assertNull(group.findByUid("uid-25000", null));
+      assertEquals("instance",
+                   group.findByUid("uid-25000", "2020-01-13T09:00:00")
+                        .getStringProperty("title"));
+      assertEquals(num, group.getEntries().size());
+
+      // An entry of another group is copied in
+      final var other =
+              (JSGroup)factory.newValue(JSTypes.typeJSGroup);
+      final var fromGroup = group.findByUid("uid-1", null);
+      other.replaceByUid(fromGroup);
+      final var inOther = other.findByUid("uid-1", null);
+      assertNotSame(fromGroup, inOther);
+
+      inOther.setTitle("changed");
+      inOther.setProperty(JSPropertyNames.uid, "uid-moved");
+      assertNull(other.findByUid("uid-1", null));
+      assertSame(inOther, other.findByUid("uid-moved", null));
+      assertSame(fromGroup, group.findByUid("uid-1", null));
+      assertEquals("entry 1", fromGroup.getStringProperty("title"));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testGroupIndexAfterEdit() {
+    try {
+      final int[] keyed = new int[1];
+      final var entries = new JSEntriesImpl(
+              JSTypes.typeEntries,
+              JsonNodeFactory.instance.arrayNode()) {
+        @Override
+        protected Object indexKey(final JsonNode element) {
+          keyed[0]++;
+          return super.indexKey(element);
+        }
+      };
+
+      final int num = 1000;
+      for (int i = 0; i < num; i++) {
+        entries.add(groupEntry("uid-" + i, null, "entry " + i));
+      }
+
+      // Find, edit, find again - the index is built once
+      keyed[0] = 0;
+      for (int i = 0; i < num; i += 10) {
+        final var ent = entries.find("uid-" + i, null);
+        ent.setTitle("edited " + i);
+        ent.setProperty(JSPropertyNames.description, "changed");
+        ent.removeProperty(JSPropertyNames.description);
+      }
+      assertEquals(num, keyed[0]);
+      assertEquals("edited 500",
+                   entries.find("uid-500", null)
+                          .getStringProperty("title"));
+
+      // Changing a key property drops it
+      entries.find("uid-7", null)
+             .setProperty(JSPropertyNames.uid, "uid-renamed");
+      assertNull(entries.find("uid-7", null));
+      assertEquals("entry 7", entries.find("uid-renamed", null)
+                                     .getStringProperty("title"));
+      assertEquals(2 * num, keyed[0]);
+
+      // Removal moves later positions down rather than rebuilding
+      for (int i = 0; i < 100; i++) {
+        assertTrue(entries.remove("uid-" + (i * 5), null));
+      }
+      assertEquals(2 * num + 100, keyed[0]);
+      assertEquals(num - 100, entries.size());
+      assertNull(entries.find("uid-5", null));
+      for (final var uid: List.of("uid-1", "uid-501", "uid-999")) {
+        final var ent = entries.find(uid, null);
+        assertEquals(uid, ent.getUid());
+        assertSame(ent, entries.get(entries.indexOf(ent)));
+      }
+
+      // Removing the first of two with a key leaves the second
+      entries.add(groupEntry("uid-999", null, "second"));
+      assertTrue(entries.remove("uid-999", null));
+      assertEquals("second", entries.find("uid-999", null)
+                                    .getStringProperty("title"));
+      assertTrue(entries.remove("uid-999", null));
+      assertNull(entries.find("uid-999", null));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  private JSCalendarObject groupEntry(final String uid,
+                                      final String recurrenceId,
+                                      final String title) {
+    final var ent =
+            (JSCalendarObject)factory.newValue(JSTypes.typeJSEvent);
+    ent.setUid(uid);
+    ent.setTitle(title);
+    if (recurrenceId != null) {
+      ent.setRecurrenceId(new JSLocalDateTimeImpl(recurrenceId));
+    }
+
+    return ent;
+  }
+
+  @Test
+  public void testWrapperCaching() {
+    try {
+      final var obj = recurring("2020-01-06T09:00:00",
+                                "{\"frequency\": \"daily\"}",
+                                ", \"recurrenceOverrides\": {" +
+                                        "\"2020-01-07T09:00:00\": " +
+                                        "{\"title\": \"moved\"}}");
+
+      final JSRecurrenceRules rules = obj.getRecurrenceRules(false);
+      final var rule = rules.get(0);
+      assertSame(rule, rules.get(0));
+      assertSame(rule, rules.get().get(0));
+
+      // Changes through one reference are seen through the others
+      rule.setFrequency(JSRecurrenceRule.freqWeekly);
+      assertEquals(JSRecurrenceRule.freqWeekly,
+                   obj.getRecurrenceRules(false).get(0)
+                      .getFrequency(false));
+
+      final var ovs = obj.getOverrides(false);
+      final var key = new JSLocalDateTimeImpl("2020-01-07T09:00:00");
+      final var ov = ovs.get(key).getValue();
+      assertSame(ov, ovs.get(key).getValue());
+      assertSame(ov, ovs.get().get(0).getValue());
+      assertSame(obj, ov.getMaster());
+
+      final var added = (JSOverride)factory.newValue(JSTypes.typeOverride);
+      added.setProperty("title", "added");
+      final var key2 = new JSLocalDateTimeImpl("2020-01-08T09:00:00");
+      ovs.put(key2, added);
+      assertEquals(2, ovs.size());
+      assertEquals("added",
+                   ovs.get(key2).getValue().getStringProperty("title"));
+      assertSame(ovs.get(key2).getValue(), ovs.get(key2).getValue());
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testOverrideNavigation() {
+    try {
+      // Overrides for every day of 2020 in reverse order
+      final var sb = new StringBuilder(", \"recurrenceOverrides\": {");
+      final var first = LocalDateTime.parse("2020-01-01T09:00:00");
+
+      for (int i = 365; i >= 0; i--) {
+        if (i != 365) {
+          sb.append(", ");
+        }
+        sb.append("\"")
+          .append(first.plusDays(i))
+          .append(":00\": {\"title\": \"day ")
+          .append(i)
+          .append("\"}");
+      }
+      sb.append("}");
+
+      final var obj = recurring("2020-01-01T09:00:00",
+                                "{\"frequency\": \"daily\"}",
+                                sb.toString());
+      final var ovs = obj.getOverrides(false);
+
+      final var keys = ovs.navigableKeys();
+      assertEquals(366, keys.size());
+      assertEquals(first, keys.first());
+
+      final var window =
+              ovs.subMap(LocalDateTime.parse("2020-03-01T00:00:00"),
+                         LocalDateTime.parse("2020-03-08T00:00:00"));
+
+      assertEquals(7, window.size());
+      assertEquals(LocalDateTime.parse("2020-03-01T09:00:00"),
+                   window.firstKey());
+      assertEquals("day 60",
+                   window.firstEntry().getValue()
+                         .getStringProperty("title"));
+      assertSame(window.firstEntry().getValue(),
+                 ovs.get(new JSLocalDateTimeImpl("2020-03-01T09:00:00"))
+                    .getValue());
+
+      final var mid = LocalDateTime.parse("2020-06-15T12:00:00");
+      assertEquals(LocalDateTime.parse("2020-06-16T09:00:00"),
+                   ovs.ceilingEntry(mid).getKey());
+      assertEquals(LocalDateTime.parse("2020-06-15T09:00:00"),
+                   ovs.floorEntry(mid).getKey());
+      assertNull(ovs.floorEntry(first.minusDays(1)));
+
+      // The index follows changes to the map
+      ovs.makeEntry(new JSLocalDateTimeImpl("2020-06-15T12:00:00"));
+      assertEquals(367, ovs.navigableKeys().size());
+      assertEquals(mid, ovs.ceilingEntry(mid).getKey());
+
+      ovs.remove(new JSLocalDateTimeImpl("2020-01-01T09:00:00"));
+      assertEquals(366, ovs.navigableKeys().size());
+      assertEquals(LocalDateTime.parse("2020-01-02T09:00:00"),
+                   ovs.navigableKeys().first());
+
+      // An earlier snapshot is unchanged
+      assertEquals(first, keys.first());
+
+      // A second field with the same recurrence id is not indexed
+      ovs.makeEntry(new JSLocalDateTimeImpl("2020-02-01T09:00:00.000"));
+      assertEquals(367, ovs.size());
+      assertEquals(366, ovs.navigableKeys().size());
+      assertEquals("day 31",
+                   ovs.floorEntry(LocalDateTime.parse(
+                           "2020-02-01T09:00:00"))
+                      .getValue().getStringProperty("title"));
+
+      // until the first is removed
+      ovs.remove(new JSLocalDateTimeImpl("2020-02-01T09:00:00"));
+      assertEquals(366, ovs.navigableKeys().size());
+      final var replaced = ovs.floorEntry(LocalDateTime.parse(
+              "2020-02-01T09:00:00"));
+      assertEquals(LocalDateTime.parse("2020-02-01T09:00:00"),
+                   replaced.getKey());
+      assertNull(replaced.getValue().getStringProperty("title"));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testOccurrencesInRange() {
+    try {
+      final var from = LocalDateTime.parse("2029-03-01T00:00:00");
+      final var to = LocalDateTime.parse("2029-04-01T00:00:00");
+
+      // 20 years weekly, first monday of the month and an override
+      final List<JSCalendarObject> objs = List.of(
+              recurring("2010-01-04T09:00:00",
+                        "{\"frequency\": \"weekly\", " +
+                                "\"byDay\": [{\"day\": \"mo\"}, " +
+                                "{\"day\": \"we\"}]}",
+                        ", \"recurrenceOverrides\": {" +
+                                "\"2029-03-05T09:00:00\": {\"excluded\": true}, " +
+                                "\"2029-03-10T10:00:00\": {\"title\": \"extra\"}, " +
+                                "\"2029-05-10T10:00:00\": {\"title\": \"later\"}}"),
+              recurring("2010-01-04T09:00:00",
+                        "{\"frequency\": \"monthly\", \"interval\": 2, " +
+                                "\"byDay\": [{\"day\": \"mo\", " +
+                                "\"nthOfPeriod\": 1}]}",
+                        ""),
+              recurring("2010-01-04T09:00:00",
+                        "{\"frequency\": \"weekly\", \"count\": 1500}",
+                        ""));
+
+      for (final var obj: objs) {
+        final List<LocalDateTime> expected = new ArrayList<>();
+        JSRecurrenceExpander.stream(obj)
+                            .takeWhile(dt -> dt.isBefore(to))
+                            .filter(dt -> !dt.isBefore(from))
+                            .forEach(expected::add);
+
+        final var inRange = obj.getOccurrences(from, to);
+        assertFalse(inRange.isEmpty());
+        assertEquals(expected, inRange);
+        info("In range: " + inRange);
+      }
+
+      assertTrue(objs.get(0).getOccurrences(from, to).contains(
+              LocalDateTime.parse("2029-03-10T10:00:00")));
+      assertFalse(objs.get(0).getOccurrences(from, to).contains(
+              LocalDateTime.parse("2029-03-05T09:00:00")));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  @Test
+  public void testFreeBusy() {
+    try {
+      final var json = "{\"@type\": \"jsgroup\", " +
+              "\"uid\": \"" + UUID.randomUUID() + "\", " +
+              "\"entries\": [" +
+              entry("2020-01-06T09:00:00", "PT1H", "\"Etc/UTC\"",
+                    ", \"recurrenceRules\": [{" +
+                            "\"frequency\": \"weekly\"}], " +
+                            "\"recurrenceOverrides\": {" +
+                            "\"2020-01-20T09:00:00\": " +
+                            "{\"duration\": \"PT2H\"}}") + ", " +
+              entry("2020-01-13T09:30:00", "PT1H30M", "\"Etc/UTC\"",
+                    "") + ", " +
+              entry("2020-01-14T09:00:00", "PT1H", "\"Etc/UTC\"",
+                    ", \"freeBusyStatus\": \"free\"") + ", " +
+              entry("2020-01-15T09:00:00", "PT1H", "\"Etc/UTC\"",
+                    ", \"status\": \"cancelled\"") + ", " +
+              entry("2020-01-16T12:00:00", "PT30M", "null", "") + ", " +
+              // Custom zone ids are taken as the default zone
+              entry("2020-01-17T12:00:00", "PT30M",
+                    "\"/example.com/tz1\"", "") +
+              "]}";
+
+      final var group = (JSGroup)mapper.parse(
+              json.getBytes(StandardCharsets.UTF_8));
+
+      final var fb = new JSFreeBusy(Instant.parse("2020-01-13T00:00:00Z"),
+                                    Instant.parse("2020-01-21T00:00:00Z"),
+                                    ZoneOffset.UTC);
+
+      final long[] busy = fb.busy(group);
+      final List<String> periods = new ArrayList<>();
+      for (int i = 0; i < busy.length; i += 2) {
+        periods.add(Instant.ofEpochSecond(busy[i]) + "/" +
+                            Instant.ofEpochSecond(busy[i + 1]));
+      }
+
+      assertEquals(List.of("2020-01-13T09:00:00Z/2020-01-13T11:00:00Z",
+                           "2020-01-16T12:00:00Z/2020-01-16T12:30:00Z",
+                           "2020-01-17T12:00:00Z/2020-01-17T12:30:00Z",
+                           "2020-01-20T09:00:00Z/2020-01-20T11:00:00Z"),
+                   periods);
+
+      final Map<String, JSGroup> users = new HashMap<>();
+      for (int i = 0; i < 20; i++) {
+        users.put("user" + i, group);
+      }
+
+      final var all = fb.busyAll(users, 4);
+
+      assertEquals(users.size(), all.size());
+      assertTrue(Arrays.equals(busy, all.get("user7")));
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
+  private String entry(final String start,
+                       final String duration,
+                       final String timeZone,
+                       final String extra) {
+    return "{\"@type\": \"jsevent\", " +
+            "\"uid\": \"" + UUID.randomUUID() + "\", " +
+            "\"start\": \"" + start + "\", " +
+            "\"duration\": \"" + duration + "\", " +
+            "\"timeZone\": " + timeZone +
+            extra + "}";
+  }
+
+  private JSCalendarObject recurring(final String start,
+                                     final String rule,
+                                     final String extra) {
+    final var json = "{\"@type\": \"jsevent\", " +
+            "\"uid\": \"" + UUID.randomUUID() + "\", " +
+            "\"start\": \"" + start + "\", " +
+            "\"duration\": \"PT1H\", " +
+            "\"recurrenceRules\": [" + rule + "]" +
+            extra + "}";
+
+    return mapper.parse(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private List<String> expand(final JSCalendarObject obj,
+                              final int max) {
+    final List<String> res = new ArrayList<>();
+    JSRecurrenceExpander.stream(obj)
+                        .limit(max)
+                        .forEach(dt -> res.add(dt.toString()));
+
+    return res;
+  }
+
+  @Test
+  public void testTemporal() {
+    try {
+      for (final var val: List.of("2020-01-06T09:00:00",
+                                  "2020-02-29T23:59:59.5",
+                                  "1999-12-31T00:00:00.123456789")) {
+        assertEquals(LocalDateTime.parse(val),
+                     JSTemporal.parseLocalDateTime(val));
+        assertEquals(Instant.parse(val + "Z"),
+                     JSTemporal.parseUTCDateTime(val + "Z"));
+      }
+
+      // Not the usual form so handled by java.time
+      assertEquals(LocalDateTime.parse("2020-01-06T09:00"),
+                   JSTemporal.parseLocalDateTime("2020-01-06T09:00"));
+
+      final var dur = new JSDurationImpl("P1W2DT3H30M15.5S");
+      assertEquals(Period.ofDays(9), dur.getPeriod());
+      assertEquals(Duration.parse("PT3H30M15.5S"), dur.getTime());
+      assertEquals(Duration.parse("P9DT3H30M15.5S"), dur.getDuration());
+
+      final var sdur = new JSSignedDurationImpl("-PT15M");
+      assertEquals(Duration.ofMinutes(-15), sdur.getDuration());
+
+      try {
+        new JSDurationImpl("-PT15M");
+        Assert.fail("Sign accepted for unsigned duration");
+      } catch (final JsforjException ignored) {
+      }
+
+      for (final var bad: List.of("P", "PT", "P1DT", "PT1H1H", "PT5S3H",
+                                  "P1D1W", "P1H", "PT1D", "P1.5D",
+                                  "PT99999999999999999999S",
+                                  "PT9999999999999999H",
+                                  "P9999999999999D")) {
+        try {
+          JSTemporal.parseDuration(bad, false);
+          Assert.fail("Accepted duration " + bad);
+        } catch (final JsforjException ignored) {
+        }
+      }
+
+      assertEquals(Duration.ofSeconds(3601),
+                   JSTemporal.parseDuration("PT1H1S", false)
+                             .getDuration());
+
+      final var ldt = new JSLocalDateTimeImpl("2020-01-06T09:00:00");
+      Assert.assertSame(ldt.getDt(), ldt.getDt());
+    } catch (final Throwable t) {
+      t.printStackTrace();
+      Assert.fail(t.getMessage());
+    }
+  }
+
   @Test
   public void testBuildEvent() {
     try {